@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+# Runs the same HTTP load against the application on platform threads and on virtual threads.
+#
+#   DOCTOR_EMAIL=... DOCTOR_PASSWORD=... PATIENT_EMAIL=... PATIENT_PASSWORD=... scripts/load-benchmark.sh
+#
+# Needs a Java 21+ JDK (virtual threads) and the MySQL/MongoDB instances from application.properties.
+# CLIENTS, DURATION, WARMUP_SECONDS, BOOK_PERCENT and PORT can be overridden from the environment.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+PORT=${PORT:-8080}
+CLIENTS=${CLIENTS:-200}
+DURATION=${DURATION:-60}
+WARMUP_SECONDS=${WARMUP_SECONDS:-15}
+BOOK_PERCENT=${BOOK_PERCENT:-10}
+BASE_URL="http://localhost:${PORT}/api/v1"
+
+mvn -B -q package -DskipTests
+JAR=$(ls target/*.jar | grep -v plain | head -n 1)
+
+run() {
+    local label=$1 profiles=$2
+    echo "== ${label}"
+    # SQL logging to stdout would dominate both runs, so it is switched off for the measurement
+    java -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$profiles" \
+        --spring.jpa.show-sql=false > "target/load-${label}.log" 2>&1 &
+    local pid=$!
+    trap 'kill $pid 2>/dev/null || true' EXIT
+
+    for _ in $(seq 1 120); do
+        curl -sf "${BASE_URL}/doctor" > /dev/null && break
+        sleep 1
+    done
+
+    java -cp target/test-classes com.project.back_end.benchmark.LoadBenchmark \
+        baseUrl="$BASE_URL" clients="$CLIENTS" seconds="$DURATION" warmupSeconds="$WARMUP_SECONDS" \
+        bookPercent="$BOOK_PERCENT" \
+        doctorEmail="$DOCTOR_EMAIL" doctorPassword="$DOCTOR_PASSWORD" \
+        patientEmail="$PATIENT_EMAIL" patientPassword="$PATIENT_PASSWORD"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+run platform default
+run virtual virtual
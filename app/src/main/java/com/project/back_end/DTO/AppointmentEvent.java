@@ -0,0 +1,84 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A committed change to a doctor's appointments, published in process by {@code AppointmentService} and pushed to the
+ * doctor's open dashboards by {@code AppointmentFeed}.
+ * <p>
+ * {@code appointmentTime} is null when the change spans several appointments whose times are not at hand (a batch
+ * status update); such an event concerns every day of the doctor. An appointment moved to another doctor or time also
+ * carries where it was, so the dashboard it left is told as well.
+ */
+public class AppointmentEvent {
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String CANCELED = "CANCELED";
+    public static final String STATUS = "STATUS";
+
+    private final String type;
+    private final long doctorId;
+    private final List<Long> appointmentIds;
+    private final LocalDateTime appointmentTime;
+    private final Integer status;
+    private final Long previousDoctorId;
+    private final LocalDateTime previousAppointmentTime;
+
+    private AppointmentEvent(String type, long doctorId, List<Long> appointmentIds, LocalDateTime appointmentTime,
+                             Integer status, Long previousDoctorId, LocalDateTime previousAppointmentTime) {
+        this.type = type;
+        this.doctorId = doctorId;
+        this.appointmentIds = appointmentIds;
+        this.appointmentTime = appointmentTime;
+        this.status = status;
+        this.previousDoctorId = previousDoctorId;
+        this.previousAppointmentTime = previousAppointmentTime;
+    }
+
+    public static AppointmentEvent created(long doctorId, Long appointmentId, LocalDateTime time, int status) {
+        return new AppointmentEvent(CREATED, doctorId, List.of(appointmentId), time, status, null, null);
+    }
+
+    public static AppointmentEvent updated(long doctorId, Long appointmentId, LocalDateTime time, int status,
+                                           long previousDoctorId, LocalDateTime previousTime) {
+        return new AppointmentEvent(UPDATED, doctorId, List.of(appointmentId), time, status, previousDoctorId, previousTime);
+    }
+
+    public static AppointmentEvent canceled(long doctorId, Long appointmentId, LocalDateTime time) {
+        return new AppointmentEvent(CANCELED, doctorId, List.of(appointmentId), time, null, null, null);
+    }
+
+    public static AppointmentEvent statusChanged(long doctorId, List<Long> appointmentIds, LocalDateTime time, int status) {
+        return new AppointmentEvent(STATUS, doctorId, List.copyOf(appointmentIds), time, status, null, null);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getDoctorId() {
+        return doctorId;
+    }
+
+    public List<Long> getAppointmentIds() {
+        return appointmentIds;
+    }
+
+    public LocalDateTime getAppointmentTime() {
+        return appointmentTime;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public Long getPreviousDoctorId() {
+        return previousDoctorId;
+    }
+
+    public LocalDateTime getPreviousAppointmentTime() {
+        return previousAppointmentTime;
+    }
+}
@@ -0,0 +1,18 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Doctor, start time and status of an appointment, read with a native locking query ({@code SELECT ... FOR UPDATE}),
+ * so the status cannot change until the reading transaction ends. Spring Data backs it by the result row.
+ */
+public interface AppointmentSlot {
+
+    Long getId();
+
+    Long getDoctorId();
+
+    LocalDateTime getAppointmentTime();
+
+    Integer getStatus();
+}
@@ -0,0 +1,37 @@
+package com.project.back_end.DTO;
+
+import java.util.List;
+
+public class AppointmentStatusUpdate {
+
+// 1. 'appointmentIds' field:
+//    - Type: private List<Long>
+//    - Description:
+//      - The appointments whose status should change. Ids of other doctors' appointments are ignored.
+    private List<Long> appointmentIds;
+
+// 2. 'status' field:
+//    - Type: private int
+//    - Description:
+//      - The new status for all of them (0 scheduled, 1 completed, 2 prescribed, 3 no-show).
+    private int status;
+
+// 3. Getters and Setters:
+//    - Standard getter and setter methods for both fields, used by Jackson to bind the request body.
+
+    public List<Long> getAppointmentIds() {
+        return appointmentIds;
+    }
+
+    public void setAppointmentIds(List<Long> appointmentIds) {
+        this.appointmentIds = appointmentIds;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,48 @@
+package com.project.back_end.DTO;
+
+/**
+ * The caller of the current request, resolved once from its token by
+ * {@link com.project.back_end.config.CurrentUserArgumentResolver}.
+ * <p>
+ * {@code entity} is a JPA reference to the Admin, Doctor or Patient row; reading its id does not hit the database,
+ * so it can be assigned to associations (e.g. {@code appointment.setPatient(...)}) directly.
+ */
+public class AuthPrincipal {
+
+    private final String role;
+    private final long id;
+    private final String subject;
+    private final Object entity;
+
+    public AuthPrincipal(String role, long id, String subject, Object entity) {
+        this.role = role;
+        this.id = id;
+        this.subject = subject;
+        this.entity = entity;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public <T> T getEntity(Class<T> type) {
+        return type.cast(entity);
+    }
+
+    @Override
+    public String toString() {
+        return "AuthPrincipal{" +
+                "role='" + role + '\'' +
+                ", id=" + id +
+                ", subject='" + subject + '\'' +
+                '}';
+    }
+}
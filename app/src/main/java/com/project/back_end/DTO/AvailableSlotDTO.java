@@ -0,0 +1,48 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * An open slot returned by the first-available search.
+ */
+public class AvailableSlotDTO {
+
+    private final Long doctorId;
+    private final String doctorName;
+    private final String specialty;
+    private final LocalDateTime start;
+    private final String slot;
+
+    public AvailableSlotDTO(Long doctorId, String doctorName, String specialty, LocalDateTime start, String slot) {
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.specialty = specialty;
+        this.start = start;
+        this.slot = slot;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public String getDoctorName() {
+        return doctorName;
+    }
+
+    public String getSpecialty() {
+        return specialty;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDate getDate() {
+        return start.toLocalDate();
+    }
+
+    public String getSlot() {
+        return slot;
+    }
+}
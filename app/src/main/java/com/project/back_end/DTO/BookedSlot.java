@@ -0,0 +1,25 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booked (doctor, start time) pair, projected straight from the appointment table.
+ */
+public class BookedSlot {
+
+    private final Long doctorId;
+    private final LocalDateTime appointmentTime;
+
+    public BookedSlot(Long doctorId, LocalDateTime appointmentTime) {
+        this.doctorId = doctorId;
+        this.appointmentTime = appointmentTime;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public LocalDateTime getAppointmentTime() {
+        return appointmentTime;
+    }
+}
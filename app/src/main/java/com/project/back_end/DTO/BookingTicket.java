@@ -0,0 +1,66 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Receipt for a booking accepted by the asynchronous booking pipeline. Starts as {@code PENDING} and is resolved
+ * to {@code BOOKED}, {@code SLOT_TAKEN} or {@code FAILED} once the batch containing it has been written.
+ */
+public class BookingTicket {
+
+    public static final String PENDING = "PENDING";
+    public static final String BOOKED = "BOOKED";
+    public static final String SLOT_TAKEN = "SLOT_TAKEN";
+    public static final String FAILED = "FAILED";
+
+    private final String id;
+    private final Long patientId;
+    private final Long doctorId;
+    private final LocalDateTime appointmentTime;
+    private volatile String status = PENDING;
+    private volatile Long appointmentId;
+
+    public BookingTicket(String id, Long patientId, Long doctorId, LocalDateTime appointmentTime) {
+        this.id = id;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.appointmentTime = appointmentTime;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @JsonIgnore
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public LocalDateTime getAppointmentTime() {
+        return appointmentTime;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    @JsonIgnore
+    public boolean isDone() {
+        return !PENDING.equals(status);
+    }
+
+    public void resolve(String status, Long appointmentId) {
+        this.appointmentId = appointmentId;
+        this.status = status;
+    }
+}
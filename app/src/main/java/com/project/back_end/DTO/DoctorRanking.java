@@ -0,0 +1,41 @@
+package com.project.back_end.DTO;
+
+/**
+ * One doctor's line of the monthly or yearly leaderboard, read from the {@code doctor_monthly_stats} rollup.
+ */
+public class DoctorRanking {
+
+    private final Long doctorId;
+    private final String doctorName;
+    private final String specialty;
+    private final long patientsSeen;
+    private final long cancellations;
+
+    public DoctorRanking(Long doctorId, String doctorName, String specialty, Long patientsSeen, Long cancellations) {
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.specialty = specialty;
+        this.patientsSeen = patientsSeen != null ? patientsSeen : 0;
+        this.cancellations = cancellations != null ? cancellations : 0;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public String getDoctorName() {
+        return doctorName;
+    }
+
+    public String getSpecialty() {
+        return specialty;
+    }
+
+    public long getPatientsSeen() {
+        return patientsSeen;
+    }
+
+    public long getCancellations() {
+        return cancellations;
+    }
+}
@@ -0,0 +1,21 @@
+package com.project.back_end.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an {@link com.project.back_end.DTO.AuthPrincipal} controller parameter that should be resolved from the
+ * request's {@code token} path variable (or request parameter) for the given role.
+ * The parameter is {@code null} when the token is missing, invalid or issued for another role.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+
+    /**
+     * Role the token must be valid for: {@code admin}, {@code doctor} or {@code patient}.
+     */
+    String value();
+}
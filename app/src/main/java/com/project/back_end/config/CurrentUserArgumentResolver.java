@@ -0,0 +1,69 @@
+package com.project.back_end.config;
+
+import java.util.Map;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.project.back_end.DTO.AuthPrincipal;
+import com.project.back_end.services.TokenService;
+
+/**
+ * Resolves {@link CurrentUser} parameters. The token is parsed once per request and the resulting principal is
+ * stored as a request attribute, so services receive the caller's id instead of re-parsing the token and
+ * looking the user up by email again.
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String ATTRIBUTE_PREFIX = AuthPrincipal.class.getName() + ".";
+
+    private final TokenService tokenService;
+
+    public CurrentUserArgumentResolver(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    public boolean supportsParameter(@NonNull MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && AuthPrincipal.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(@NonNull MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  @NonNull NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        String role = parameter.getParameterAnnotation(CurrentUser.class).value();
+        String attribute = ATTRIBUTE_PREFIX + role;
+
+        Object cached = webRequest.getAttribute(attribute, RequestAttributes.SCOPE_REQUEST);
+        if (cached != null) {
+            return cached;
+        }
+
+        String token = findToken(webRequest);
+        if (token == null) {
+            return null;
+        }
+        AuthPrincipal principal = tokenService.resolvePrincipal(token, role);
+        if (principal != null) {
+            webRequest.setAttribute(attribute, principal, RequestAttributes.SCOPE_REQUEST);
+        }
+        return principal;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String findToken(NativeWebRequest webRequest) {
+        Map<String, String> uriVariables = (Map<String, String>) webRequest.getAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (uriVariables != null && uriVariables.containsKey("token")) {
+            return uriVariables.get("token");
+        }
+        return webRequest.getParameter("token");
+    }
+}
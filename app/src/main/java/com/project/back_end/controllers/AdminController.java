@@ -3,10 +3,29 @@ package com.project.back_end.controllers;
 
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Admin;
+import com.project.back_end.models.Patient;
+import com.project.back_end.services.AppointmentAnalyticsService;
 import com.project.back_end.services.CMService;
+import com.project.back_end.services.DailyReportService;
+import com.project.back_end.services.DoctorStatsRollup;
+import com.project.back_end.services.LiveLeaderboard;
+import com.project.back_end.services.PatientService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
@@ -15,6 +34,11 @@ import java.util.logging.Logger;
 public class AdminController {
 
     private final CMService service;
+    private final PatientService patientService;
+    private final DailyReportService dailyReportService;
+    private final DoctorStatsRollup doctorStats;
+    private final AppointmentAnalyticsService analyticsService;
+    private final LiveLeaderboard liveLeaderboard;
     private Logger logger = Logger.getLogger(AdminController.class.getName());
 
 
@@ -28,8 +52,15 @@ public class AdminController {
 //    - Use constructor injection to autowire the `Service` class.
 //    - The service handles core logic related to admin validation and token checking.
 //    - This promotes cleaner code and separation of concerns between the controller and business logic layer.
-    public AdminController(CMService service) {
+    public AdminController(CMService service, PatientService patientService, DailyReportService dailyReportService,
+                           DoctorStatsRollup doctorStats, AppointmentAnalyticsService analyticsService,
+                           LiveLeaderboard liveLeaderboard) {
         this.service = service;
+        this.patientService = patientService;
+        this.dailyReportService = dailyReportService;
+        this.doctorStats = doctorStats;
+        this.analyticsService = analyticsService;
+        this.liveLeaderboard = liveLeaderboard;
     }
 
     // 3. Define the `adminLogin` Method:
@@ -45,6 +76,196 @@ public class AdminController {
 
     }
 
+    // 4. Define the `importPatients` Method:
+//    - Handles HTTP POST requests to import a list of patients in bulk; requires an admin token.
+//    - Valid, new patients are inserted in one transaction as JDBC batches; invalid rows and existing emails/phones are skipped.
+//    - Returns the number of imported, duplicate and invalid rows.
+    @PostMapping("patients/import/{token}")
+    public ResponseEntity<Map<String, Object>> importPatients(@PathVariable String token, @RequestBody List<Patient> patients) {
+        Map<String, Object> response = new HashMap<>();
+        if (!service.validateToken(token, "admin")) {
+            response.put("error", "Unauthorized: Only admins can import patients");
+            return ResponseEntity.status(401).body(response);
+        }
+        try {
+            response.putAll(patientService.importPatients(patients));
+            response.put("message", "Patients imported");
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            logger.severe("Patient import failed: " + e.getMessage());
+            response.put("error", "Failed to import patients: " + e.getMessage());
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
+    // 5. Define the `getDailyReport` Method:
+//    - Handles HTTP GET requests for the daily appointment report of all doctors (doctor, time, status, patient name and phone),
+//      ordered by doctor name and time; requires an admin token.
+//    - `format` is `csv` (the default, as a download) or `ndjson` (one JSON object per line).
+//    - The rows are streamed from the database to the response as they are read (see `DailyReportService`), so the report
+//      takes the same memory for ten appointments as for a hundred thousand.
+    @GetMapping("reports/daily/{date}/{token}")
+    public ResponseEntity<?> getDailyReport(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                            @PathVariable String token,
+                                            @RequestParam(defaultValue = DailyReportService.CSV) String format) {
+        Map<String, Object> response = new HashMap<>();
+        if (!service.validateToken(token, "admin")) {
+            response.put("error", "Unauthorized: Only admins can read reports");
+            return ResponseEntity.status(401).body(response);
+        }
+        if (!DailyReportService.isSupportedFormat(format)) {
+            response.put("error", "Format must be csv or ndjson");
+            return ResponseEntity.badRequest().body(response);
+        }
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            long rows = dailyReportService.writeReport(date, format, writer);
+            writer.flush();
+            logger.info("Daily report for " + date + ": " + rows + " appointments as " + format);
+        };
+        if (DailyReportService.NDJSON.equals(format)) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+        }
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"appointments-" + date + ".csv\"")
+                .body(body);
+    }
+
+    // 6. Define the `getMonthlyLeaderboard` and `getYearlyLeaderboard` Methods:
+//    - Handle HTTP GET requests for the doctors with the most patients seen (appointments that were not no-shows) in a month
+//      or a year, best first, with their cancellations; require an admin token.
+//    - Read from the monthly rollups (see `DoctorStatsRollup`): a month is one index range, a year at most twelve rows per doctor.
+//    - `limit` (default 10, at most `DoctorStatsRollup.MAX_LEADERBOARD_SIZE`) is the number of doctors returned.
+    @GetMapping("leaderboard/{year}/{month}/{token}")
+    public ResponseEntity<Map<String, Object>> getMonthlyLeaderboard(@PathVariable int year, @PathVariable int month,
+                                                                     @PathVariable String token,
+                                                                     @RequestParam(defaultValue = "10") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        if (!service.validateToken(token, "admin")) {
+            response.put("error", "Unauthorized: Only admins can read reports");
+            return ResponseEntity.status(401).body(response);
+        }
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.of(year, month);
+        } catch (DateTimeException e) {
+            response.put("error", "Invalid month");
+            return ResponseEntity.badRequest().body(response);
+        }
+        response.put("month", yearMonth.toString());
+        response.put("doctors", doctorStats.getMonthlyLeaderboard(yearMonth, limit));
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("leaderboard/{year}/{token}")
+    public ResponseEntity<Map<String, Object>> getYearlyLeaderboard(@PathVariable int year, @PathVariable String token,
+                                                                    @RequestParam(defaultValue = "10") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        if (!service.validateToken(token, "admin")) {
+            response.put("error", "Unauthorized: Only admins can read reports");
+            return ResponseEntity.status(401).body(response);
+        }
+        response.put("year", year);
+        response.put("doctors", doctorStats.getYearlyLeaderboard(year, limit));
+        return ResponseEntity.ok(response);
+    }
+
+    // 7. Define the `rebuildDoctorStats` and `getDoctorStatsRebuild` Methods:
+//    - POST starts recomputing the monthly rollups from the appointment tables in the background and returns 202,
+//      or 409 if a rebuild is running already; GET returns the progress of the current or last rebuild. Require an admin token.
+    @PostMapping("leaderboard/rebuild/{token}")
+    public ResponseEntity<Map<String, Object>> rebuildDoctorStats(@PathVariable String token) {
+        Map<String, Object> response = new HashMap<>();
+        if (!service.validateToken(token, "admin")) {
+            response.put("error", "Unauthorized: Only admins can rebuild statistics");
+            return ResponseEntity.status(401).body(response);
+        }
+        boolean started = doctorStats.rebuild();
+        response.putAll(doctorStats.getStats());
+        if (!started) {
+            response.put("error", "A rebuild is already running");
+            return ResponseEntity.status(409).body(response);
+        }
+        response.put("message", "Rebuild started");
+        return ResponseEntity.status(202).body(response);
+    }
+
+    @GetMapping("leaderboard/rebuild/{token}")
+    public ResponseEntity<Map<String, Object>> getDoctorStatsRebuild(@PathVariable String token) {
+        Map<String, Object> response = new HashMap<>();
+        if (!service.validateToken(token, "admin")) {
+            response.put("error", "Unauthorized: Only admins can read statistics");
+            return ResponseEntity.status(401).body(response);
+        }
+        response.putAll(doctorStats.getStats());
+        return ResponseEntity.ok(response);
+    }
+
+    // 8. Define the `getAnalytics` and `getAnalyticsStats` Methods:
+//    - Handle HTTP GET requests for the dashboard charts: appointments, no-show rate, utilization of the doctors' slots and
+//      appointments by hour and weekday per specialty, plus the most booked doctors, for the days `from` to `to`
+//      (default: the last 30 days); require an admin token.
+//    - Computed from the in-memory snapshot (see `AppointmentAnalyticsService`), so they never query MySQL; 503 until the
+//      first snapshot is built. The stats endpoint describes the snapshot and its refreshes.
+    @GetMapping("analytics/{token}")
+    public ResponseEntity<Map<String, Object>> getAnalytics(@PathVariable String token,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Map<String, Object> response = new HashMap<>();
+        if (!service.validateToken(token, "admin")) {
+            response.put("error", "Unauthorized: Only admins can read analytics");
+            return ResponseEntity.status(401).body(response);
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        try {
+            Map<String, Object> analytics = analyticsService.getAnalytics(start, end);
+            if (analytics == null) {
+                response.put("error", "Analytics are not available yet");
+                return ResponseEntity.status(503).body(response);
+            }
+            return ResponseEntity.ok(analytics);
+        } catch (IllegalArgumentException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("analytics/stats/{token}")
+    public ResponseEntity<Map<String, Object>> getAnalyticsStats(@PathVariable String token) {
+        Map<String, Object> response = new HashMap<>();
+        if (!service.validateToken(token, "admin")) {
+            response.put("error", "Unauthorized: Only admins can read analytics");
+            return ResponseEntity.status(401).body(response);
+        }
+        response.putAll(analyticsService.getStats());
+        return ResponseEntity.ok(response);
+    }
+
+    // 9. Define the `getLiveLeaderboard` Method:
+//    - Handles HTTP GET requests for the most booked doctors and specialties of the last `hour`, `day` or `week`, as of now;
+//      requires an admin token.
+//    - Estimated in memory from the bookings as they commit (see `LiveLeaderboard`); `limit` (default 10, at most
+//      `LiveLeaderboard.MAX_SIZE`) is the number of doctors and specialties returned.
+    @GetMapping("leaderboard/live/{window}/{token}")
+    public ResponseEntity<Map<String, Object>> getLiveLeaderboard(@PathVariable String window, @PathVariable String token,
+                                                                  @RequestParam(defaultValue = "10") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        if (!service.validateToken(token, "admin")) {
+            response.put("error", "Unauthorized: Only admins can read reports");
+            return ResponseEntity.status(401).body(response);
+        }
+        if (!LiveLeaderboard.isWindow(window)) {
+            response.put("error", "Window must be hour, day or week");
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.ok(liveLeaderboard.getTop(window, limit));
+    }
+
     @GetMapping()
     public String admins() {
         return "Have a nice day";
@@ -2,24 +2,36 @@ package com.project.back_end.controllers;
 
 
 import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AppointmentStatusUpdate;
+import com.project.back_end.DTO.AuthPrincipal;
+import com.project.back_end.DTO.BookingTicket;
+import com.project.back_end.config.CurrentUser;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Doctor;
 import com.project.back_end.models.Patient;
+import com.project.back_end.services.AppointmentArchiver;
+import com.project.back_end.services.AppointmentFeed;
 import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.AppointmentStatusSweeper;
+import com.project.back_end.services.BookingPipeline;
 import com.project.back_end.services.CMService;
 import com.project.back_end.services.DoctorService;
 import com.project.back_end.services.PatientService;
+import com.project.back_end.services.ScheduleCache;
+import com.project.back_end.services.SlotHoldManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 
 @RestController
@@ -31,17 +43,30 @@ public class AppointmentController {
     private CMService service;
     private DoctorService doctorService;
     private PatientService patientService;
+    private BookingPipeline bookingPipeline;
+    private AppointmentStatusSweeper statusSweeper;
+    private AppointmentArchiver archiver;
+    private AppointmentFeed feed;
+    private ScheduleCache scheduleCache;
 
 // 1. Set Up the Controller Class:
 //    - Annotate the class with `@RestController` to define it as a REST API controller.
 //    - Use `@RequestMapping("/appointments")` to set a base path for all appointment-related endpoints.
 //    - This centralizes all routes that deal with booking, updating, retrieving, and canceling appointments.
 
-    public AppointmentController(AppointmentService appointmentService, CMService service, DoctorService doctorService, PatientService patientService) {
+    public AppointmentController(AppointmentService appointmentService, CMService service, DoctorService doctorService, PatientService patientService,
+                                 BookingPipeline bookingPipeline, AppointmentStatusSweeper statusSweeper,
+                                 AppointmentArchiver archiver, AppointmentFeed feed,
+                                 ScheduleCache scheduleCache) {
         this.appointmentService = appointmentService;
         this.service = service;
         this.doctorService = doctorService;
         this.patientService = patientService;
+        this.bookingPipeline = bookingPipeline;
+        this.statusSweeper = statusSweeper;
+        this.archiver = archiver;
+        this.feed = feed;
+        this.scheduleCache = scheduleCache;
     }
 
 // 2. Autowire Dependencies:
@@ -52,29 +77,16 @@ public class AppointmentController {
     // 3. Define the `getAppointments` Method:
 //    - Handles HTTP GET requests to fetch appointments based on date and patient name.
 //    - Takes the appointment date, patient name, and token as path variables.
-//    - First validates the token for role `"doctor"` using the `Service`.
+//    - The token is resolved once into the calling doctor (`@CurrentUser("doctor")`); it is null when the token is not valid for that role.
 //    - If the token is valid, returns appointments for the given patient on the specified date.
+//    - The appointments are read as `AppointmentDTO` projections, ordered by time; no entities are loaded.
 //    - If the token is invalid or expired, responds with the appropriate message and status code.
     @GetMapping("/{date}/{patientName}/{token}")
-    public ResponseEntity<Map <String,Object>> getAppointments(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date, @PathVariable String patientName, @PathVariable String token)
+    public ResponseEntity<Map <String,Object>> getAppointments(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date, @PathVariable String patientName, @CurrentUser("doctor") AuthPrincipal doctor)
     {
         Map<String, Object> response = new HashMap<>();
-        if (service.validateToken(token, "doctor")) {
-            List<Appointment> appointments = appointmentService.getAppointmentsByDoctorsTokenAndDate(token, date, patientName);
-            List<AppointmentDTO> appointmentDTOs = appointments.stream()
-                    .map(app -> new AppointmentDTO(
- //  public AppointmentDTO(Long id, Long doctorId, Long patientId, String patientName, String patientEmail, String patientPhone, String patientAddress, LocalDateTime appointmentTime, int status) {
-                            //
-                            app.getId(),
-                            app.getDoctor().getId(), // Simplified doctor info
-                            app.getPatient().getId(),
-                            app.getPatient().getName(),
-                            app.getPatient().getEmail(),
-                            app.getPatient().getPhone(),
-                            app.getPatient().getAddress(),
-                            app.getAppointmentTime(),
-                            app.getStatus()))
-                    .collect(Collectors.toList());
+        if (doctor != null) {
+            List<AppointmentDTO> appointmentDTOs = appointmentService.getScheduleByDoctorIdAndDate(doctor.getId(), date, patientName);
             response.put("appointments", appointmentDTOs);
         } else {
             response.put("error", "Invalid or expired token. Please log in again.");
@@ -85,30 +97,69 @@ public class AppointmentController {
     }
 
 
+    // 3a. Define the `subscribe` Method:
+//    - Handles HTTP GET requests that open a server-sent event stream (`text/event-stream`) of changes to the calling doctor's appointments on `date`.
+//    - Sends a `ready` event on connect and an `appointment` event (an `AppointmentEvent`) for every committed booking, update,
+//      cancellation or status change of that day, so the dashboard reloads only when something changed (see `AppointmentFeed`).
+//    - The token is checked once when the stream opens. Responds with 401 for an invalid token and 503 when too many streams are open.
+    @GetMapping(value = "/feed/{date}/{token}", produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> subscribe(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                @CurrentUser("doctor") AuthPrincipal doctor) {
+        if (doctor == null) {
+            return ResponseEntity.status(401).build();
+        }
+        SseEmitter emitter = feed.subscribe(doctor.getId(), date);
+        if (emitter == null) {
+            return ResponseEntity.status(503).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+
     // 4. Define the `bookAppointment` Method:
 //    - Handles HTTP POST requests to create a new appointment.
 //    - Accepts a validated `Appointment` object in the request body and a token as a path variable.
-//    - Validates the token for the `"patient"` role.
+//    - Validates the token for the `"patient"` role; the booking is always made for the patient the token belongs to.
 //    - Uses service logic to validate the appointment data (e.g., check for doctor availability and time conflicts).
-//    - Returns success if booked, or appropriate error messages if the doctor ID is invalid or the slot is already taken.
+//    - Returns success if booked, or appropriate error messages if the doctor ID is invalid or the slot is already taken (409 Conflict).
+//    - Also 409 while the doctor is being deleted (`DoctorDeletionJob`), since the booking would be deleted with them.
+//    - With `booking.pipeline.enabled`, the booking is queued for the `BookingPipeline` instead and 202 Accepted is returned with a
+//      `ticket` id to poll (see `getBookingTicket`); 503 if the queue is full.
     @PostMapping("/{token}")
-    public ResponseEntity<Map<String, Object>> bookAppointment(@RequestBody AppointmentDTO appointmentDTO, @PathVariable String token) {
-        //TODO: process POST request
+    public ResponseEntity<Map<String, Object>> bookAppointment(@RequestBody AppointmentDTO appointmentDTO, @CurrentUser("patient") AuthPrincipal patient) {
         Map<String, Object> response = new HashMap<>();
-        if (service.validateToken(token, "patient")) {
+        if (patient != null) {
             Appointment appointment = new Appointment();
             Optional<Doctor> doctorOption = doctorService.getDoctorById(appointmentDTO.getDoctorId());
             if (!doctorOption.isPresent()) {
                 response.put("error", "Invalid doctor Id.");
                 return ResponseEntity.badRequest().body(response);
             }
+            if (doctorService.isBeingDeleted(appointmentDTO.getDoctorId())) {
+                response.put("error", "This doctor is no longer taking appointments.");
+                return ResponseEntity.status(409).body(response);
+            }
             appointment.setDoctor(doctorOption.get());
-            appointment.setPatient(patientService.getPatientById(appointmentDTO.getPatientId()));
+            appointment.setPatient(patient.getEntity(Patient.class));
             appointment.setAppointmentTime(appointmentDTO.getAppointmentTime());
+            if (bookingPipeline.isEnabled()) {
+                BookingTicket ticket = bookingPipeline.submit(appointment);
+                if (ticket == null) {
+                    response.put("error", "Too many bookings right now. Please try again in a moment.");
+                    return ResponseEntity.status(503).body(response);
+                }
+                response.put("message", "Booking received");
+                response.put("ticket", ticket.getId());
+                response.put("status", ticket.getStatus());
+                return ResponseEntity.status(202).body(response);
+            }
             int result = appointmentService.bookAppointment(appointment);
             if (result == 1) {
                 response.put("message", "Appointment booked successfully");
                 return ResponseEntity.ok(response);
+            } else if (result == AppointmentService.SLOT_TAKEN) {
+                response.put("error", "This slot has just been booked. Please choose another time.");
+                return ResponseEntity.status(409).body(response);
             } else {
                 response.put("error", "Failed to book appointment. Please try again.");
                 return ResponseEntity.status(500).body(response);
@@ -120,28 +171,132 @@ public class AppointmentController {
     }
 
 
+    // 4a. Define the `getBookingTicket` Method:
+//    - Handles HTTP GET requests for the state of a queued booking: PENDING, BOOKED (with `appointmentId`), SLOT_TAKEN or FAILED.
+//    - Only the patient who made the booking can see its ticket; unknown or expired tickets return 404.
+    @GetMapping("/ticket/{ticketId}/{token}")
+    public ResponseEntity<Map<String, Object>> getBookingTicket(@PathVariable String ticketId, @CurrentUser("patient") AuthPrincipal patient) {
+        Map<String, Object> response = new HashMap<>();
+        if (patient == null) {
+            response.put("error", "Invalid or expired token. Please log in again.");
+            return ResponseEntity.badRequest().body(response);
+        }
+        BookingTicket ticket = bookingPipeline.getTicket(ticketId);
+        if (ticket == null || !ticket.getPatientId().equals(patient.getId())) {
+            response.put("error", "Booking ticket not found.");
+            return ResponseEntity.status(404).body(response);
+        }
+        response.put("ticket", ticket);
+        return ResponseEntity.ok(response);
+    }
+
+
+    // 4b. Define the `bookAppointments` Method:
+//    - Handles HTTP POST requests to insert many appointments at once (bulk loads, migrations); admin only.
+//    - Accepts a list of `AppointmentDTO` (doctorId, patientId, appointmentTime, status) and inserts them in one transaction.
+//    - Returns 400 for invalid rows and 409 if any slot is already booked; nothing is inserted in either case.
+    @PostMapping("/batch/{token}")
+    public ResponseEntity<Map<String, Object>> bookAppointments(@RequestBody List<AppointmentDTO> appointments, @CurrentUser("admin") AuthPrincipal admin) {
+        Map<String, Object> response = new HashMap<>();
+        if (admin == null) {
+            response.put("error", "Invalid or expired token. Please log in again.");
+            return ResponseEntity.status(401).body(response);
+        }
+        try {
+            int inserted = appointmentService.bookAppointments(appointments);
+            response.put("message", "Appointments booked successfully");
+            response.put("inserted", inserted);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (DataIntegrityViolationException e) {
+            response.put("error", "At least one slot in the batch is already booked.");
+            return ResponseEntity.status(409).body(response);
+        } catch (Exception e) {
+            response.put("error", "Failed to book appointments: " + e.getMessage());
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
+
+    // 4c. Define the `holdSlot` and `releaseHold` Methods:
+//    - POST `/hold/{token}` with `doctorId` and `appointmentTime` keeps the slot for the patient for a couple of minutes while they
+//      complete the booking; other patients no longer see it as available. Holding the same slot again refreshes the hold.
+//    - Returns the hold's `expiresAt`, 409 if the slot is booked or held by someone else, 429 if the patient holds too many slots.
+//    - DELETE `/hold/{doctorId}/{appointmentTime}/{token}` gives the slot back early.
+    @PostMapping("/hold/{token}")
+    public ResponseEntity<Map<String, Object>> holdSlot(@RequestBody AppointmentDTO appointmentDTO, @CurrentUser("patient") AuthPrincipal patient) {
+        Map<String, Object> response = new HashMap<>();
+        if (patient == null) {
+            response.put("error", "Invalid or expired token. Please log in again.");
+            return ResponseEntity.badRequest().body(response);
+        }
+        try {
+            SlotHoldManager.Hold hold = appointmentService.holdSlot(appointmentDTO.getDoctorId(), appointmentDTO.getAppointmentTime(), patient.getId());
+            if (hold == null) {
+                response.put("error", "This slot is no longer available. Please choose another time.");
+                return ResponseEntity.status(409).body(response);
+            }
+            response.put("message", "Slot held");
+            response.put("doctorId", hold.getDoctorId());
+            response.put("appointmentTime", hold.getAppointmentTime());
+            response.put("expiresAt", hold.getExpiresAt());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(429).body(response);
+        }
+    }
+
+    @DeleteMapping("/hold/{doctorId}/{appointmentTime}/{token}")
+    public ResponseEntity<Map<String, Object>> releaseHold(@PathVariable Long doctorId,
+                                                           @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime appointmentTime,
+                                                           @CurrentUser("patient") AuthPrincipal patient) {
+        Map<String, Object> response = new HashMap<>();
+        if (patient == null) {
+            response.put("error", "Invalid or expired token. Please log in again.");
+            return ResponseEntity.badRequest().body(response);
+        }
+        boolean released = appointmentService.releaseHold(doctorId, appointmentTime, patient.getId());
+        response.put("message", released ? "Hold released" : "No hold on this slot");
+        return ResponseEntity.ok(response);
+    }
+
+
     // 5. Define the `updateAppointment` Method:
 //    - Handles HTTP PUT requests to modify an existing appointment.
 //    - Accepts a validated `Appointment` object and a token as input.
 //    - Validates the token for `"patient"` role.
 //    - Delegates the update logic to the `AppointmentService`.
-//    - Returns an appropriate success or failure response based on the update result.
+//    - Returns an appropriate success or failure response based on the update result; 409 while the doctor is being deleted.
     @PutMapping("/{token}")
-    public ResponseEntity<Map<String, Object>> updateAppointment(@RequestBody AppointmentDTO appointmentDTO, @PathVariable String token) {
+    public ResponseEntity<Map<String, Object>> updateAppointment(@RequestBody AppointmentDTO appointmentDTO, @CurrentUser("patient") AuthPrincipal patient) {
         Map<String, Object> response = new HashMap<>();
-        if (service.validateToken(token, "patient")) {
+        if (patient != null) {
             Appointment updatedAppointment = new Appointment();
             Optional<Doctor> doctorOption = doctorService.getDoctorById(appointmentDTO.getDoctorId());
             if (!doctorOption.isPresent()) {
                 response.put("error", "Invalid doctor Id.");
                 return ResponseEntity.badRequest().body(response);
             }
+            if (doctorService.isBeingDeleted(appointmentDTO.getDoctorId())) {
+                response.put("error", "This doctor is no longer taking appointments.");
+                return ResponseEntity.status(409).body(response);
+            }
             updatedAppointment.setDoctor(doctorOption.get());
-            updatedAppointment.setPatient(patientService.getPatientById(appointmentDTO.getPatientId()));
+            updatedAppointment.setPatient(patient.getEntity(Patient.class));
             updatedAppointment.setAppointmentTime(appointmentDTO.getAppointmentTime());
             updatedAppointment.setStatus(appointmentDTO.getStatus());
             String result = appointmentService.updateAppointment(appointmentDTO.getId(), updatedAppointment);
-            if (result.equals("success")) {
+            if (AppointmentService.SLOT_TAKEN_MESSAGE.equals(result)) {
+                response.put("error", "This slot has just been booked. Please choose another time.");
+                return ResponseEntity.status(409).body(response);
+            }
+            if (AppointmentService.UPDATED_MESSAGE.equals(result)) {
                 response.put("message", "Appointment updated successfully");
                 return ResponseEntity.ok(response);
             } else {
@@ -155,19 +310,99 @@ public class AppointmentController {
     }
 
 
+    // 5a. Define the `updateStatuses` Method:
+//    - Handles HTTP PUT requests that set one status on many of the calling doctor's appointments (e.g. marking no-shows at the end of a day).
+//    - Body: `appointmentIds` and `status` (0 scheduled, 1 completed, 2 prescribed, 3 no-show). Ids of other doctors' appointments are ignored.
+//    - Returns the number of appointments updated, or 400 for an unknown status or an empty or oversized list.
+    @PutMapping("/status/{token}")
+    public ResponseEntity<Map<String, Object>> updateStatuses(@RequestBody AppointmentStatusUpdate update, @CurrentUser("doctor") AuthPrincipal doctor) {
+        Map<String, Object> response = new HashMap<>();
+        if (doctor == null) {
+            response.put("error", "Invalid or expired token. Please log in again.");
+            return ResponseEntity.status(401).body(response);
+        }
+        try {
+            int updated = appointmentService.changeStatuses(doctor.getId(), update.getAppointmentIds(), update.getStatus());
+            response.put("message", "Appointment status updated successfully");
+            response.put("updated", updated);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            response.put("error", "Failed to update appointment status: " + e.getMessage());
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
+
+    // 5b. Define the `getSweeperStats` Method:
+//    - Handles HTTP GET requests for the progress of the end-of-day status sweep (`AppointmentStatusSweeper`); admin only.
+    @GetMapping("/status/sweeper/{token}")
+    public ResponseEntity<Map<String, Object>> getSweeperStats(@CurrentUser("admin") AuthPrincipal admin) {
+        Map<String, Object> response = new HashMap<>();
+        if (admin == null) {
+            response.put("error", "Invalid or expired token. Please log in again.");
+            return ResponseEntity.status(401).body(response);
+        }
+        response.put("stats", statusSweeper.getStats());
+        return ResponseEntity.ok(response);
+    }
+
+
+    // 5c. Define the `getArchiveStats` Method:
+//    - Handles HTTP GET requests for the progress of the job that moves old appointments to the archive (`AppointmentArchiver`); admin only.
+    @GetMapping("/archive/stats/{token}")
+    public ResponseEntity<Map<String, Object>> getArchiveStats(@CurrentUser("admin") AuthPrincipal admin) {
+        Map<String, Object> response = new HashMap<>();
+        if (admin == null) {
+            response.put("error", "Invalid or expired token. Please log in again.");
+            return ResponseEntity.status(401).body(response);
+        }
+        response.put("stats", archiver.getStats());
+        return ResponseEntity.ok(response);
+    }
+
+
+    // 5d. Define the `getFeedStats` Method:
+//    - Handles HTTP GET requests for the number of open dashboard streams and events published and delivered (`AppointmentFeed`); admin only.
+    @GetMapping("/feed/stats/{token}")
+    public ResponseEntity<Map<String, Object>> getFeedStats(@CurrentUser("admin") AuthPrincipal admin) {
+        Map<String, Object> response = new HashMap<>();
+        if (admin == null) {
+            response.put("error", "Invalid or expired token. Please log in again.");
+            return ResponseEntity.status(401).body(response);
+        }
+        response.put("stats", feed.getStats());
+        return ResponseEntity.ok(response);
+    }
+
+
+    // 5e. Define the `getScheduleCacheStats` Method:
+//    - Handles HTTP GET requests for the hit ratio, evictions and invalidations of the per-doctor-and-day `ScheduleCache`; admin only.
+    @GetMapping("/schedule-cache/stats/{token}")
+    public ResponseEntity<Map<String, Object>> getScheduleCacheStats(@CurrentUser("admin") AuthPrincipal admin) {
+        Map<String, Object> response = new HashMap<>();
+        if (admin == null) {
+            response.put("error", "Invalid or expired token. Please log in again.");
+            return ResponseEntity.status(401).body(response);
+        }
+        response.put("stats", scheduleCache.getStats());
+        return ResponseEntity.ok(response);
+    }
+
+
     // 6. Define the `cancelAppointment` Method:
 //    - Handles HTTP DELETE requests to cancel a specific appointment.
 //    - Accepts the appointment ID and a token as path variables.
 //    - Validates the token for `"patient"` role to ensure the user is authorized to cancel the appointment.
 //    - Calls `AppointmentService` to handle the cancellation process and returns the result.
     @DeleteMapping("/{id}/{token}")
-    public ResponseEntity<Map<String, Object>> cancelAppointment(@PathVariable Long id, @PathVariable String token) {
+    public ResponseEntity<Map<String, Object>> cancelAppointment(@PathVariable Long id, @CurrentUser("patient") AuthPrincipal patient) {
         Map<String, Object> response = new HashMap<>();
-        if (service.validateToken(token, "patient")) {
-            Patient patient = service.getPatientByToken(token);
-
+        if (patient != null) {
             String result = appointmentService.cancelAppointment(id, patient.getId());
-            if (result.equals("success")) {
+            if (AppointmentService.CANCELED_MESSAGE.equals(result)) {
                 response.put("message", "Appointment canceled successfully");
                 return ResponseEntity.ok(response);
             } else {
@@ -7,8 +7,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import com.project.back_end.DTO.AuthPrincipal;
+import com.project.back_end.DTO.AvailableSlotDTO;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Doctor;
+import com.project.back_end.services.DoctorDeletionJob;
 import com.project.back_end.services.DoctorService;
 import com.project.back_end.services.CMService;
 
@@ -50,6 +53,7 @@ public class DoctorController {
 //    - Requires `user` type, `doctorId`, `date`, and `token` as path variables.
 //    - First validates the token against the user type.
 //    - If the token is invalid, returns an error response; otherwise, returns the availability status for the doctor.
+//    - Slots held by other patients are not listed; a patient still sees their own held slot.
     @GetMapping("/availability/{user}/{doctorId}/{date}/{token}")
     public ResponseEntity<Map<String, Object>> getDoctorAvailability(
             @PathVariable String user,
@@ -58,15 +62,18 @@ public class DoctorController {
             @PathVariable String token) {
 
         Map<String, Object> response = new HashMap<>();
-        if (!service.validateToken(token, user)) {
+        AuthPrincipal principal = service.resolvePrincipal(token, user);
+        if (principal == null) {
             response.put("status", "error");
             response.put("message", "Invalid token for user type: " + user);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
+        // a patient still sees the slots they hold themselves
+        Long patientId = "patient".equalsIgnoreCase(principal.getRole()) ? principal.getId() : null;
 
         try {
             LocalDate appointmentDate = LocalDate.parse(date);
-            List<String> availability = doctorService.getDoctorAvailability(doctorId, appointmentDate);
+            List<String> availability = doctorService.getDoctorAvailability(doctorId, appointmentDate, patientId);
             response.put("status", "success");
             response.put("doctorId", doctorId);
             response.put("date", date);
@@ -81,6 +88,103 @@ public class DoctorController {
     }
 
 
+    // 3a. Define the `getDoctorAvailabilityRange` Method:
+//    - Same as `getDoctorAvailability`, but for `days` consecutive days starting at `date` (at most a month).
+//    - The token is validated once and all days are served from a single range query.
+    @GetMapping("/availability/{user}/{doctorId}/{date}/{days}/{token}")
+    public ResponseEntity<Map<String, Object>> getDoctorAvailabilityRange(
+            @PathVariable String user,
+            @PathVariable Long doctorId,
+            @PathVariable String date,
+            @PathVariable int days,
+            @PathVariable String token) {
+
+        Map<String, Object> response = new HashMap<>();
+        AuthPrincipal principal = service.resolvePrincipal(token, user);
+        if (principal == null) {
+            response.put("status", "error");
+            response.put("message", "Invalid token for user type: " + user);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        // a patient still sees the slots they hold themselves
+        Long patientId = "patient".equalsIgnoreCase(principal.getRole()) ? principal.getId() : null;
+
+        try {
+            LocalDate from = LocalDate.parse(date);
+            Map<String, List<String>> availability = doctorService.getDoctorAvailabilityRange(doctorId, from, days, patientId);
+            response.put("status", "success");
+            response.put("doctorId", doctorId);
+            response.put("from", date);
+            response.put("days", availability.size());
+            response.put("availability", availability);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("status", "error");
+            response.put("message", "Error retrieving availability: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+
+    // 3b. Define the `getAvailabilityStats` Method:
+//    - Handles HTTP GET requests for the in-memory availability engine's cache and occupancy figures.
+//    - Requires an admin token.
+    @GetMapping("/availability/stats/{token}")
+    public ResponseEntity<Map<String, Object>> getAvailabilityStats(@PathVariable String token) {
+        Map<String, Object> response = new HashMap<>();
+        if (!service.validateToken(token, "admin")) {
+            response.put("status", "error");
+            response.put("message", "Unauthorized: Only admins can view availability statistics");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        response.put("status", "success");
+        response.put("stats", doctorService.getAvailabilityStats());
+        return ResponseEntity.ok(response);
+    }
+
+
+    // 3c. Define the `getFirstAvailableSlots` Method:
+//    - Handles HTTP GET requests for the earliest open slots across all doctors of a specialty.
+//    - Optional request parameters: `time` ("AM", "PM" or "HH:mm-HH:mm"), `days` (horizon, default 30) and `limit` (default 10).
+//    - Returns 400 for an invalid time filter.
+//    - Slots held by other patients are not listed; a patient still sees their own held slot.
+    @GetMapping("/firstAvailable/{user}/{specialty}/{token}")
+    public ResponseEntity<Map<String, Object>> getFirstAvailableSlots(
+            @PathVariable String user,
+            @PathVariable String specialty,
+            @PathVariable String token,
+            @RequestParam(required = false) String time,
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        Map<String, Object> response = new HashMap<>();
+        AuthPrincipal principal = service.resolvePrincipal(token, user);
+        if (principal == null) {
+            response.put("status", "error");
+            response.put("message", "Invalid token for user type: " + user);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        // a patient still sees the slots they hold themselves
+        Long patientId = "patient".equalsIgnoreCase(principal.getRole()) ? principal.getId() : null;
+        try {
+            List<AvailableSlotDTO> slots = doctorService.findFirstAvailableSlots(specialty, time, days, limit, patientId);
+            response.put("status", "success");
+            response.put("specialty", specialty);
+            response.put("slots", slots);
+            response.put("count", slots.size());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            response.put("status", "error");
+            response.put("message", "Error searching available slots: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+
     // 4. Define the `getDoctor` Method:
 //    - Handles HTTP GET requests to retrieve a list of all doctors.
 //    - Returns the list within a response map under the key `"doctors"` with HTTP 200 OK status.
@@ -185,7 +289,8 @@ public class DoctorController {
 // 8. Define the `deleteDoctor` Method:
 //    - Handles HTTP DELETE requests to remove a doctor by ID.
 //    - Requires both doctor ID and an admin token as path variables.
-//    - If the doctor exists, deletes the record and returns a success message; otherwise, responds with a not found or error message.
+//    - If the doctor exists, starts the deletion and returns 202 with its progress; otherwise, responds with a not found or error message.
+//    - The doctor disappears from search at once; their appointments are deleted in the background (see `getDeletionProgress`).
 
     @DeleteMapping("/{doctorId}/{token}")
     public ResponseEntity<Map<String, Object>> deleteDoctor(@PathVariable Long doctorId, @PathVariable String token) {
@@ -203,8 +308,9 @@ public class DoctorController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
             } else if (result == 1) {
                 response.put("status", "success");
-                response.put("message", "Doctor deleted successfully");
-                return ResponseEntity.ok(response);
+                response.put("message", "Doctor deletion started");
+                response.put("progress", doctorService.getDeletionProgress(doctorId));
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
             } else {
                 response.put("status", "error");
                 response.put("message", "Error deleting doctor");
@@ -217,6 +323,29 @@ public class DoctorController {
         }
     }
 
+// 8a. Define the `getDeletionProgress` Method:
+//    - Handles HTTP GET requests for the progress of a doctor deletion started in the last hour; admin only.
+//    - Returns the state (QUEUED, RUNNING, DONE or FAILED) and how many appointments have been deleted so far, or 404.
+
+    @GetMapping("/deletion/{doctorId}/{token}")
+    public ResponseEntity<Map<String, Object>> getDeletionProgress(@PathVariable Long doctorId, @PathVariable String token) {
+        Map<String, Object> response = new HashMap<>();
+        if (!service.validateToken(token, "admin")) {
+            response.put("status", "error");
+            response.put("message", "Unauthorized: Only admins can view doctor deletions");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        DoctorDeletionJob.Progress progress = doctorService.getDeletionProgress(doctorId);
+        if (progress == null) {
+            response.put("status", "error");
+            response.put("message", "No recent deletion for this doctor");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("status", "success");
+        response.put("progress", progress);
+        return ResponseEntity.ok(response);
+    }
+
 // 9. Define the `filter` Method:
 //    - Handles HTTP GET requests to filter doctors based on name, time, and specialty.
 //    - Accepts `name`, `time`, and `speciality` as path variables.
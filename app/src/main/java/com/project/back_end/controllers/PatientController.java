@@ -1,20 +1,28 @@
 package com.project.back_end.controllers;
 
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AuthPrincipal;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.services.CMService;
 import com.project.back_end.services.PatientService;
 
 import jakarta.validation.Valid;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -88,14 +96,54 @@ public class PatientController {
 //    - Requires the patient ID, token, and user role as path variables.
 //    - Validates the token using the shared service.
 //    - If valid, retrieves the patient's appointment data from `PatientService`; otherwise, returns a validation error.
+//    - A patient can only fetch their own appointments; a doctor can fetch any patient's.
+    @GetMapping("/{id}/{user}/{token}")
+    public ResponseEntity<Map<String, Object>> getPatientAppointment(
+            @PathVariable Long id,
+            @PathVariable String user,
+            @PathVariable String token) {
 
+        Map<String, Object> response = new HashMap<>();
+        AuthPrincipal principal = service.resolvePrincipal(token, user);
+        if (principal == null) {
+            response.put("status", "error");
+            response.put("message", "Invalid token for user type: " + user);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        if ("patient".equalsIgnoreCase(principal.getRole()) && principal.getId() != id) {
+            response.put("status", "error");
+            response.put("message", "Patients can only view their own appointments");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+        ResponseEntity<List<AppointmentDTO>> result = patientService.getPatientAppointment(id);
+        response.put("appointments", result.getBody());
+        return ResponseEntity.status(result.getStatusCode()).body(response);
+    }
 
 // 7. Define the `filterPatientAppointment` Method:
 //    - Handles HTTP GET requests to filter a patient's appointments based on specific conditions.
 //    - Accepts filtering parameters: `condition`, `name`, and a token.
 //    - Token must be valid for a `"patient"` role.
 //    - If valid, delegates filtering logic to the shared service and returns the filtered result.
-
+//    - Results are paged: the optional `afterTime`, `afterId` and `size` request parameters come from the `next` of the previous page.
+    @GetMapping("/filter/{condition}/{name}/{token}")
+    public ResponseEntity<Map<String, Object>> filterPatientAppointment(
+            @PathVariable String condition,
+            @PathVariable String name,
+            @PathVariable String token,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterTime,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "0") int size) {
+
+        AuthPrincipal principal = service.resolvePrincipal(token, "patient");
+        if (principal == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", "Invalid token. Access denied.");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        return patientService.filterByDoctorAndCondition(principal.getId(), name, condition, afterTime, afterId, size);
+    }
 
 
 }
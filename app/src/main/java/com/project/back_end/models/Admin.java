@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
@@ -18,10 +19,11 @@ public class Admin {
 //    - Type: private Long
 //    - Description: 
 //      - Represents the unique identifier for the Admin entity.
-//      - This field is auto-generated by the database using @GeneratedValue with strategy GenerationType.IDENTITY.
+//      - This field is generated from the pooled `admin_seq` sequence (a one-row table on MySQL), 50 ids per round trip, so inserts can be batched.
 //      - It is the primary key of the entity, identified by @Id annotation.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "admin_seq")
+    @SequenceGenerator(name = "admin_seq", sequenceName = "admin_seq", allocationSize = 50)
     private long id;
 // 2. 'username' field:
 //    - Type: private String
@@ -10,21 +10,30 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_appointment_doctor_time", columnNames = {"doctor_id", "appointment_time"}),
+        indexes = {
+                @Index(name = "idx_appointment_patient_time", columnList = "patient_id, appointment_time, status"),
+                @Index(name = "idx_appointment_time", columnList = "appointment_time")
+        })
 public class Appointment {
 
   // @Entity annotation:
 //    - Marks the class as a JPA entity, meaning it represents a table in the database.
 //    - Required for persistence frameworks (e.g., Hibernate) to map the class to a database table.
+//    - A doctor can only have one appointment starting at a given time (unique doctor_id, appointment_time).
+//    - A patient's history is paged by time (patient_id, appointment_time); status is in the index so the past/future filter needs no row lookups.
+//    - Reports and the nightly jobs select whole days across all doctors by appointment_time range.
 
 // 1. 'id' field:
 //    - Type: private Long
 //    - Description:
 //      - Represents the unique identifier for each appointment.
 //      - The @Id annotation marks it as the primary key.
-//      - The @GeneratedValue(strategy = GenerationType.IDENTITY) annotation auto-generates the ID value when a new record is inserted into the database.
+//      - The id is taken from the pooled `appointment_seq` sequence (a one-row table on MySQL), 50 ids per round trip, so inserts can be batched.
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_seq")
+    @SequenceGenerator(name = "appointment_seq", sequenceName = "appointment_seq", allocationSize = 50)
     private long id;
 
 // 2. 'doctor' field:
@@ -65,7 +74,13 @@ public class Appointment {
 //      - Represents the current status of the appointment. It is an integer where:
 //        - 0 means the appointment is scheduled.
 //        - 1 means the appointment has been completed.
+//        - 2 means a prescription has been written for it.
+//        - 3 means the patient did not show up.
 //      - The @NotNull annotation ensures that the status field is not null.
+    public static final int SCHEDULED = 0;
+    public static final int COMPLETED = 1;
+    public static final int PRESCRIBED = 2;
+    public static final int NO_SHOW = 3;
 
     @NotNull
     private int status;
@@ -0,0 +1,85 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "appointment_archive", indexes = {
+        @Index(name = "idx_appointment_archive_doctor_time", columnList = "doctor_id, appointment_time"),
+        @Index(name = "idx_appointment_archive_patient_time", columnList = "patient_id, appointment_time, status"),
+        @Index(name = "idx_appointment_archive_time", columnList = "appointment_time")
+})
+public class ArchivedAppointment {
+
+  // @Entity annotation:
+//    - Cold copy of an `Appointment` that is older than the archive horizon (see `AppointmentArchiver`).
+//    - Rows are written by the archiver with a plain `INSERT ... SELECT` from `appointment` and never change afterwards,
+//      which keeps the hot `appointment` table and its indexes the size of the recent weeks instead of the whole history.
+
+// 1. 'id' field:
+//    - Type: private long
+//    - Description:
+//      - The id the appointment had in the hot table, so links to it (e.g. prescriptions) keep working.
+    @Id
+    private long id;
+
+// 2. 'doctor' and 'patient' fields:
+//    - Same relationships as in `Appointment`, loaded lazily; the archive queries fetch them explicitly.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id")
+    private Doctor doctor;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id")
+    private Patient patient;
+
+// 3. 'appointmentTime' and 'status' fields:
+//    - Copied unchanged from the hot row.
+    private LocalDateTime appointmentTime;
+
+    private int status;
+
+// 4. 'archivedAt' field:
+//    - When the row was moved out of the hot table.
+    private LocalDateTime archivedAt;
+
+// 5. 'toAppointment' method:
+//    - Detached `Appointment` with the same values, so archived rows can be returned by the `AppointmentRepository` queries.
+    public Appointment toAppointment() {
+        Appointment appointment = new Appointment();
+        appointment.setId(id);
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentTime(appointmentTime);
+        appointment.setStatus(status);
+        return appointment;
+    }
+
+// 6. Getters:
+//    - Archived rows are read-only, so there are no setters.
+
+    public long getId() {
+        return id;
+    }
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    public Patient getPatient() {
+        return patient;
+    }
+
+    public LocalDateTime getAppointmentTime() {
+        return appointmentTime;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
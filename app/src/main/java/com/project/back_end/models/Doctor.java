@@ -1,5 +1,6 @@
 package com.project.back_end.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
@@ -21,9 +22,10 @@ public class Doctor {
 //    - Description:
 //      - Represents the unique identifier for each doctor.
 //      - The @Id annotation marks it as the primary key.
-//      - The @GeneratedValue(strategy = GenerationType.IDENTITY) annotation auto-generates the ID value when a new record is inserted into the database.
+//      - The id is taken from the pooled `doctor_seq` sequence (a one-row table on MySQL), 50 ids per round trip, so inserts can be batched.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "doctor_seq")
+    @SequenceGenerator(name = "doctor_seq", sequenceName = "doctor_seq", allocationSize = 50)
     private long id;
 
 // 2. 'name' field:
@@ -90,6 +92,13 @@ public class Doctor {
     @CollectionTable(name="doctor_available_times", joinColumns = @JoinColumn(name="doctor_id"))
     @Column(name = "available_times")
     private List<String> availableTimes;
+
+// 7b. 'slots' field:
+//    - Parsed, bitmask form of availableTimes (see DoctorSlots); not persisted or serialized.
+//    - Recomputed whenever the doctor is loaded or saved, so time filters never parse the slot strings per request.
+    @Transient
+    @JsonIgnore
+    private DoctorSlots slots;
 // 8. Getters and Setters:
 //    - Standard getter and setter methods are provided for all fields: id, name, specialty, email, password, phone, and availableTimes.
 
@@ -147,6 +156,23 @@ public class Doctor {
 
     public void setAvailableTimes(List<String> availableTimes) {
         this.availableTimes = availableTimes;
+        this.slots = null;
+    }
+
+    public DoctorSlots getSlots() {
+        DoctorSlots current = slots;
+        if (current == null) {
+            current = DoctorSlots.of(availableTimes);
+            slots = current;
+        }
+        return current;
+    }
+
+    @PostLoad
+    @PrePersist
+    @PreUpdate
+    void computeSlots() {
+        slots = DoctorSlots.of(availableTimes);
     }
 }
 
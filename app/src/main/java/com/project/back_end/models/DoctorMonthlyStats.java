@@ -0,0 +1,94 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Entity
+@Table(name = "doctor_monthly_stats",
+        indexes = @Index(name = "idx_doctor_monthly_stats_month", columnList = "year, month, patients_seen"))
+@IdClass(DoctorMonthlyStats.Key.class)
+public class DoctorMonthlyStats {
+
+// @Entity annotation:
+//    - One row per doctor and calendar month, kept up to date by `AppointmentService` in the same transaction as the
+//      booking, cancellation or status change (see `DoctorStatsRollup`), so leaderboards read a few rows instead of
+//      aggregating the appointment tables.
+//    - The leaderboard of a month (or a year) is read from the (year, month, patients_seen) index.
+
+// 1. 'doctorId', 'year' and 'month' fields:
+//    - Together the primary key; the month is the month of the appointment time, not of the booking.
+    @Id
+    @Column(name = "doctor_id")
+    private long doctorId;
+
+    @Id
+    private int year;
+
+    @Id
+    private int month;
+
+// 2. 'patientsSeen' field:
+//    - Appointments of the doctor in the month that are not cancelled and not marked as no-show (archived ones included).
+    private long patientsSeen;
+
+// 3. 'cancellations' field:
+//    - Appointments of the doctor in the month that were cancelled. A cancelled appointment is deleted, so this counter
+//      cannot be recomputed from the appointment tables and is kept as it is by a rebuild.
+    private long cancellations;
+
+// 4. Getters:
+//    - The rows are written with native upserts only (`DoctorMonthlyStatsRepository`), so there are no setters.
+
+    public long getDoctorId() {
+        return doctorId;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public long getPatientsSeen() {
+        return patientsSeen;
+    }
+
+    public long getCancellations() {
+        return cancellations;
+    }
+
+    public static class Key implements Serializable {
+        private long doctorId;
+        private int year;
+        private int month;
+
+        public Key() {
+        }
+
+        public Key(long doctorId, int year, int month) {
+            this.doctorId = doctorId;
+            this.year = year;
+            this.month = month;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return doctorId == key.doctorId && year == key.year && month == key.month;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(doctorId, year, month);
+        }
+    }
+}
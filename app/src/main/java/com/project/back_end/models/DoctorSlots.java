@@ -0,0 +1,213 @@
+package com.project.back_end.models;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact form of {@link Doctor#getAvailableTimes()}, computed once when a doctor is loaded or saved.
+ * <p>
+ * Each slot ("09:00" or "09:00-10:00") is reduced to the minute of day it starts at. On top of that, a 96-bit mask
+ * over the day's quarter-hour grid (bit {@code i} = some slot starts in {@code [15*i, 15*i + 15)}) turns the
+ * AM/PM and time-window filters into a couple of bitwise operations instead of parsing strings per request.
+ */
+public final class DoctorSlots {
+
+    public static final int QUARTERS_PER_DAY = 96;
+    public static final int NOON = 12 * 60;
+
+    private static final DoctorSlots EMPTY = new DoctorSlots(new short[0], new String[0], 0L, 0L);
+
+    public static final Window MORNING = Window.of(0, NOON);
+    public static final Window AFTERNOON = Window.of(NOON, 24 * 60);
+
+    private final short[] startMinutes;
+    private final String[] labels;
+    private final long low;
+    private final long high;
+
+    private DoctorSlots(short[] startMinutes, String[] labels, long low, long high) {
+        this.startMinutes = startMinutes;
+        this.labels = labels;
+        this.low = low;
+        this.high = high;
+    }
+
+    /**
+     * Parses a doctor's available times. Entries that are not "HH:mm" or "HH:mm-HH:mm" are ignored.
+     */
+    public static DoctorSlots of(List<String> availableTimes) {
+        if (availableTimes == null || availableTimes.isEmpty()) {
+            return EMPTY;
+        }
+        int n = 0;
+        long[] packed = new long[availableTimes.size()];
+        for (int i = 0; i < availableTimes.size(); i++) {
+            int minute = parseStartMinute(availableTimes.get(i));
+            if (minute >= 0) {
+                // minute in the high bits keeps the sort by time, the index in the low bits keeps the label
+                packed[n++] = ((long) minute << 32) | i;
+            }
+        }
+        Arrays.sort(packed, 0, n);
+
+        short[] minutes = new short[n];
+        String[] labels = new String[n];
+        long low = 0L;
+        long high = 0L;
+        for (int i = 0; i < n; i++) {
+            int minute = (int) (packed[i] >>> 32);
+            minutes[i] = (short) minute;
+            labels[i] = availableTimes.get((int) packed[i]);
+            int quarter = minute / 15;
+            if (quarter < 64) {
+                low |= 1L << quarter;
+            } else {
+                high |= 1L << (quarter - 64);
+            }
+        }
+        return new DoctorSlots(minutes, labels, low, high);
+    }
+
+    /**
+     * Minute of day a slot starts at, or -1 if the text is not a valid "HH:mm" or "HH:mm-HH:mm" slot.
+     */
+    public static int parseStartMinute(String slot) {
+        if (slot == null) {
+            return -1;
+        }
+        String s = slot.trim();
+        if (s.length() < 5 || s.charAt(2) != ':' || (s.length() > 5 && s.charAt(5) != '-')) {
+            return -1;
+        }
+        int h1 = s.charAt(0) - '0';
+        int h2 = s.charAt(1) - '0';
+        int m1 = s.charAt(3) - '0';
+        int m2 = s.charAt(4) - '0';
+        if (h1 < 0 || h1 > 9 || h2 < 0 || h2 > 9 || m1 < 0 || m1 > 5 || m2 < 0 || m2 > 9) {
+            return -1;
+        }
+        int hour = h1 * 10 + h2;
+        return hour < 24 ? hour * 60 + m1 * 10 + m2 : -1;
+    }
+
+    public boolean isEmpty() {
+        return startMinutes.length == 0;
+    }
+
+    public int size() {
+        return startMinutes.length;
+    }
+
+    public int startMinute(int index) {
+        return startMinutes[index];
+    }
+
+    public String label(int index) {
+        return labels[index];
+    }
+
+    public long lowMask() {
+        return low;
+    }
+
+    public long highMask() {
+        return high;
+    }
+
+    public boolean hasMorning() {
+        return matches(MORNING);
+    }
+
+    public boolean hasAfternoon() {
+        return matches(AFTERNOON);
+    }
+
+    /**
+     * True if any slot starts inside the window. Quarters fully covered by the window are tested with the mask;
+     * only a window edge that falls inside a quarter hour needs a look at the exact start minutes.
+     */
+    public boolean matches(Window window) {
+        if ((low & window.low) != 0 || (high & window.high) != 0) {
+            return true;
+        }
+        if (!window.aligned) {
+            for (short minute : startMinutes) {
+                if (minute >= window.fromMinute && minute < window.toMinute) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A half-open {@code [from, to)} range of minutes of the day, pre-converted to quarter-hour masks.
+     */
+    public static final class Window {
+        private final int fromMinute;
+        private final int toMinute;
+        private final long low;
+        private final long high;
+        private final boolean aligned;
+
+        private Window(int fromMinute, int toMinute, long low, long high, boolean aligned) {
+            this.fromMinute = fromMinute;
+            this.toMinute = toMinute;
+            this.low = low;
+            this.high = high;
+            this.aligned = aligned;
+        }
+
+        public static Window of(int fromMinute, int toMinute) {
+            int from = Math.max(0, fromMinute);
+            int to = Math.min(24 * 60, toMinute);
+            // only quarters that lie entirely inside the window go into the mask
+            int firstFull = (from + 14) / 15;
+            int lastFull = to / 15;
+            long low = 0L;
+            long high = 0L;
+            for (int q = firstFull; q < lastFull; q++) {
+                if (q < 64) {
+                    low |= 1L << q;
+                } else {
+                    high |= 1L << (q - 64);
+                }
+            }
+            boolean aligned = from % 15 == 0 && to % 15 == 0;
+            return new Window(from, to, low, high, aligned);
+        }
+
+        /**
+         * Parses a time filter: "AM", "PM" or a window "HH:mm-HH:mm". Returns {@code null} for anything else.
+         */
+        public static Window parse(String time) {
+            if (time == null) {
+                return null;
+            }
+            String t = time.trim();
+            if ("AM".equalsIgnoreCase(t)) {
+                return MORNING;
+            }
+            if ("PM".equalsIgnoreCase(t)) {
+                return AFTERNOON;
+            }
+            int dash = t.indexOf('-');
+            if (dash > 0) {
+                int from = parseStartMinute(t.substring(0, dash));
+                int to = parseStartMinute(t.substring(dash + 1));
+                if (from >= 0 && to > from) {
+                    return of(from, to);
+                }
+            }
+            return null;
+        }
+
+        public int fromMinute() {
+            return fromMinute;
+        }
+
+        public int toMinute() {
+            return toMinute;
+        }
+    }
+}
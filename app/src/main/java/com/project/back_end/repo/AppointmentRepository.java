@@ -1,16 +1,23 @@
 package com.project.back_end.repo;
 
+import com.project.back_end.DTO.AppointmentSlot;
+import com.project.back_end.DTO.BookedSlot;
 import com.project.back_end.models.Appointment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.LockModeType;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface AppointmentRepository  extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository  extends JpaRepository<Appointment, Long>, AppointmentRepositoryCustom {
 
    // 1. Extend JpaRepository:
 //    - The repository extends JpaRepository<Appointment, Long>, which gives it basic CRUD functionality.
@@ -21,89 +28,127 @@ public interface AppointmentRepository  extends JpaRepository<Appointment, Long>
 
 // 2. Custom Query Methods:
 
-//    - **findByDoctorIdAndAppointmentTimeBetween**:
-//      - This method retrieves a list of appointments for a specific doctor within a given time range.
-//      - The doctor’s available times are eagerly fetched to avoid lazy loading.
-//      - Return type: List<Appointment>
-//      - Parameters: List<Appointment>
-//      - It uses a LEFT JOIN to fetch the doctor’s available times along with the appointments.
-    @Query("SELECT a FROM Appointment a " +
-            "LEFT JOIN FETCH a.doctor d " +
-            "WHERE d.id = :doctorId " +
-            "AND a.appointmentTime BETWEEN :start AND :end")
-    public List<Appointment> findByDoctorIdAndAppointmentTimeBetween(
-        @Param("doctorId") Long doctorId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
-
-//    - **findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween**:
-//      - This method retrieves appointments for a specific doctor and patient name (ignoring case) within a given time range.
-//      - It performs a LEFT JOIN to fetch both the doctor and patient details along with the appointment times.
-//      - Return type: List<Appointment>
-//      - Parameters: Long doctorId, String patientName, LocalDateTime start, LocalDateTime end
-
-    @Query("SELECT a FROM Appointment a " +
-            "LEFT JOIN FETCH a.doctor d " +
-            "LEFT JOIN FETCH a.patient p " +
-            "WHERE d.id = :doctorId " +
-            "AND LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%')) " +
-            "AND a.appointmentTime BETWEEN :start AND :end")    
-   public List<Appointment> findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
-        @Param("doctorId") Long doctorId, @Param("patientName") String patientName, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
-
-   
-       // public List<Appointment> findByPatientAndDate(@Param("patientName") String patientName, @Param("date") LocalDateTime date);
+//    - **findByDoctorIdAndAppointmentTimeBetween**, **findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween**:
+//      - Declared in `AppointmentRepositoryCustom`: they read the hot table and, if the range reaches into it, the archive.
 
 //    - **deleteAllByDoctorId**:
 //      - This method deletes all appointments associated with a particular doctor.
 //      - It is marked as @Modifying and @Transactional, which makes it a modification query, ensuring that the operation is executed within a transaction.
-//      - Return type: void
+//      - A single bulk `DELETE` rather than a derived delete, which would load and remove every appointment one by one.
+//      - Return type: int (number of appointments deleted)
 //      - Parameters: Long doctorId
     @Modifying
     @Transactional
-    public void deleteAllByDoctorId(Long doctorId);
-
-//    - **findByPatientId**:
-//      - This method retrieves all appointments for a specific patient.
-//      - Return type: List<Appointment>
-//      - Parameters: Long patientId
-    public List<Appointment> findByPatientId(Long patientId);
-
-//    - **findByPatient_IdAndStatusOrderByAppointmentTimeAsc**:
-//      - This method retrieves all appointments for a specific patient with a given status, ordered by the appointment time.
-//      - Return type: List<Appointment>
-//      - Parameters: Long patientId, int status
-
-    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND a.status = :status ORDER BY a.appointmentTime ASC")
-    public List<Appointment> findByPatient_IdAndStatusOrderByAppointmentTimeAsc(@Param("patientId") Long patientId, @Param("status") int status);
-//    - **filterByDoctorNameAndPatientId**:
-//      - This method retrieves appointments based on a doctor’s name (using a LIKE query) and the patient’s ID.
-//      - Return type: List<Appointment>
-//      - Parameters: String doctorName, Long patientId
-    @Query("SELECT a FROM Appointment a " +
-            "LEFT JOIN FETCH a.doctor d " +
-            "WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) " +
-            "AND a.patient.id = :patientId")
-    public List<Appointment> filterByDoctorNameAndPatientId(@Param("doctorName") String doctorName, @Param("patientId") Long patientId);
-
-//    - **filterByDoctorNameAndPatientIdAndStatus**:
-//      - This method retrieves appointments based on a doctor’s name (using a LIKE query), patient’s ID, and a specific appointment status.
-//      - Return type: List<Appointment>
-//      - Parameters: String doctorName, Long patientId, int status
-    @Query("SELECT a FROM Appointment a " +
-            "LEFT JOIN FETCH a.doctor d " +
-            "WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) " +
-            "AND a.patient.id = :patientId " +
-            "AND a.status = :status")
-    public List<Appointment> filterByDoctorNameAndPatientIdAndStatus(@Param("doctorName") String doctorName, @Param("patientId") Long patientId, @Param("status") int status);
+    @Query("DELETE FROM Appointment a WHERE a.doctor.id = :doctorId")
+    public int deleteAllByDoctorId(@Param("doctorId") Long doctorId);
+
+//    - **deleteChunkByDoctorId**:
+//      - Deletes at most `limit` appointments of a doctor in its own short transaction (MySQL `DELETE ... LIMIT`).
+//      - Called repeatedly until it returns 0, so a doctor with a long history never locks the table in one big transaction.
+//      - Return type: int (number of appointments deleted)
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM appointment WHERE doctor_id = :doctorId LIMIT :limit", nativeQuery = true)
+    public int deleteChunkByDoctorId(@Param("doctorId") Long doctorId, @Param("limit") int limit);
+
+//    - **countByDoctorId**:
+//      - Number of appointments of a doctor, used to report deletion progress.
+    public long countByDoctorId(Long doctorId);
+
+//    - **findByPatientId**, **findByPatient_IdAndStatusOrderByAppointmentTimeAsc**, **filterByDoctorNameAndPatientId**,
+//      **filterByDoctorNameAndPatientIdAndStatus**:
+//      - Declared in `AppointmentRepositoryCustom` as well, since a patient's history can reach into the archive.
 
 
 //    - **updateStatus**:
 //      - This method updates the status of a specific appointment based on its ID.
-//      - Return type: void
+//      - Return type: int (number of rows updated, 0 if there is no such appointment)
 //      - Parameters: int status, long id
     @Modifying
     @Transactional
     @Query("UPDATE Appointment a SET a.status = :status WHERE a.id = :id")
-    public void updateStatus(@Param("status") int status, @Param("id") long id);
+    public int updateStatus(@Param("status") int status, @Param("id") long id);
+
+//    - **updateStatusForDoctor**:
+//      - Sets the status of the given appointments in one statement, skipping any that belong to another doctor.
+//      - Return type: int (number of rows updated)
+//      - Parameters: int status, Collection<Long> ids, Long doctorId
+    @Modifying
+    @Transactional
+    @Query("UPDATE Appointment a SET a.status = :status WHERE a.id IN :ids AND a.doctor.id = :doctorId")
+    public int updateStatusForDoctor(@Param("status") int status, @Param("ids") Collection<Long> ids, @Param("doctorId") Long doctorId);
+
+//    - **findIdsByStatusAndAppointmentTimeBefore**:
+//      - Next chunk of ids (ascending, after `afterId`) of appointments with the given status that started before `before`.
+//      - Walking the primary key keeps every chunk query cheap however far the sweep has got.
+    @Query("SELECT a.id FROM Appointment a " +
+            "WHERE a.status = :status AND a.appointmentTime < :before AND a.id > :afterId " +
+            "ORDER BY a.id")
+    public List<Long> findIdsByStatusAndAppointmentTimeBefore(@Param("status") int status, @Param("before") LocalDateTime before,
+                                                              @Param("afterId") long afterId, Limit limit);
+
+//    - **updateStatusIfUnchanged**:
+//      - Moves the given appointments from `expected` to `status`; rows changed in the meantime are left alone.
+//      - Return type: int (number of rows updated)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Appointment a SET a.status = :status WHERE a.id IN :ids AND a.status = :expected")
+    public int updateStatusIfUnchanged(@Param("status") int status, @Param("ids") Collection<Long> ids, @Param("expected") int expected);
+
+//    - **findIdsByAppointmentTimeBefore**:
+//      - Next chunk of ids (ascending, after `afterId`) of appointments that started before `before`; used by the archiver.
+    @Query("SELECT a.id FROM Appointment a " +
+            "WHERE a.appointmentTime < :before AND a.id > :afterId " +
+            "ORDER BY a.id")
+    public List<Long> findIdsByAppointmentTimeBefore(@Param("before") LocalDateTime before, @Param("afterId") long afterId, Limit limit);
+
+//    - **findAppointmentTimesByDoctorIdBetween**:
+//      - Returns only the start times of a doctor's appointments in the half-open range [start, end).
+//      - Used to fill the in-memory availability bitmaps without hydrating Appointment, Doctor or Patient entities.
+    @Query("SELECT a.appointmentTime FROM Appointment a " +
+            "WHERE a.doctor.id = :doctorId " +
+            "AND a.appointmentTime >= :start AND a.appointmentTime < :end")
+    public List<LocalDateTime> findAppointmentTimesByDoctorIdBetween(@Param("doctorId") Long doctorId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+//    - **findBookedSlotsBySpecialtyBetween**:
+//      - Returns (doctor id, start time) for every appointment of doctors with the given specialty in [start, end).
+//      - One query covers all doctors and days of a first-available search.
+    @Query("SELECT new com.project.back_end.DTO.BookedSlot(d.id, a.appointmentTime) FROM Appointment a " +
+            "JOIN a.doctor d " +
+            "WHERE LOWER(d.specialty) = LOWER(:specialty) " +
+            "AND a.appointmentTime >= :start AND a.appointmentTime < :end")
+    public List<BookedSlot> findBookedSlotsBySpecialtyBetween(@Param("specialty") String specialty, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+//    - **findSlotByIdForUpdate**, **findSlotsForUpdateByDoctorId** and **findSlotsForUpdateByStatus**:
+//      - Doctor, start time and current status of appointments by id, without loading the entities.
+//      - Locking reads (`FOR UPDATE`): the status read is the one that a following `UPDATE` in the same transaction
+//        replaces, which the doctor rollups (`DoctorStatsRollup`) need to count the change exactly.
+    @Query(value = "SELECT id, doctor_id AS doctorId, appointment_time AS appointmentTime, status " +
+            "FROM appointment WHERE id = :id FOR UPDATE", nativeQuery = true)
+    public AppointmentSlot findSlotByIdForUpdate(@Param("id") long id);
+
+//    - **findByIdForUpdate**:
+//      - The appointment entity, read and locked (`FOR UPDATE`) like `findSlotByIdForUpdate`, for changes that rewrite
+//        the whole row (`AppointmentService.updateAppointment`) and still need the status they replace.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Appointment a WHERE a.id = :id")
+    public Optional<Appointment> findByIdForUpdate(@Param("id") long id);
+
+    @Query(value = "SELECT id, doctor_id AS doctorId, appointment_time AS appointmentTime, status " +
+            "FROM appointment WHERE id IN (:ids) AND doctor_id = :doctorId FOR UPDATE", nativeQuery = true)
+    public List<AppointmentSlot> findSlotsForUpdateByDoctorId(@Param("ids") Collection<Long> ids, @Param("doctorId") Long doctorId);
+
+    @Query(value = "SELECT id, doctor_id AS doctorId, appointment_time AS appointmentTime, status " +
+            "FROM appointment WHERE id IN (:ids) AND status = :status FOR UPDATE", nativeQuery = true)
+    public List<AppointmentSlot> findSlotsForUpdateByStatus(@Param("ids") Collection<Long> ids, @Param("status") int status);
+
+//    - **findEarliestAppointmentTime** and **findLatestAppointmentTime**:
+//      - First and last start time in the table, or null while it is empty. Answered from the appointment_time index.
+    @Query("SELECT MIN(a.appointmentTime) FROM Appointment a")
+    public LocalDateTime findEarliestAppointmentTime();
+
+    @Query("SELECT MAX(a.appointmentTime) FROM Appointment a")
+    public LocalDateTime findLatestAppointmentTime();
 
   //  public List<Appointment> findByPatientIdAndDoctorNameAndStatus(Long patientId, String doctorName, int status);
 
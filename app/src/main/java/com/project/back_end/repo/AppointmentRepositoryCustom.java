@@ -0,0 +1,83 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.Appointment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Appointment reads that span the hot {@code appointment} table and {@code appointment_archive}.
+ * <p>
+ * They read the hot table only, unless the requested range reaches back to the newest archived appointment; only then
+ * the archive is queried as well and the results are combined. Archived rows come back as detached {@link Appointment}s.
+ * Implemented by {@link AppointmentRepositoryCustomImpl}.
+ */
+public interface AppointmentRepositoryCustom {
+
+//    - **findByDoctorIdAndAppointmentTimeBetween**:
+//      - This method retrieves a list of appointments for a specific doctor within a given time range.
+//      - The doctor’s available times are eagerly fetched to avoid lazy loading.
+//      - Return type: List<Appointment>
+//      - Parameters: Long doctorId, LocalDateTime start, LocalDateTime end
+    List<Appointment> findByDoctorIdAndAppointmentTimeBetween(Long doctorId, LocalDateTime start, LocalDateTime end);
+
+//    - **findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween**:
+//      - This method retrieves appointments for a specific doctor and patient name (ignoring case) within a given time range.
+//      - Return type: List<Appointment>
+//      - Parameters: Long doctorId, String patientName, LocalDateTime start, LocalDateTime end
+    List<Appointment> findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
+            Long doctorId, String patientName, LocalDateTime start, LocalDateTime end);
+
+//    - **findScheduleByDoctorIdAndAppointmentTimeBetween**:
+//      - A doctor's appointments in the half-open range [start, end), ordered by time, for the read-only schedule view.
+//      - Projected straight into `AppointmentDTO` with a JPQL constructor expression: one query, no Appointment, Doctor
+//        (with its EAGER available times) or Patient entity is hydrated.
+//      - `patientName` is optional; if given, only patients whose name contains it (ignoring case) are returned.
+    List<AppointmentDTO> findScheduleByDoctorIdAndAppointmentTimeBetween(Long doctorId, String patientName, LocalDateTime start, LocalDateTime end);
+
+//    - **findHistoryByPatientId** and **findHistoryByDoctorNameAndPatientId**:
+//      - A patient's appointments, optionally only with doctors whose name contains `doctorName` (ignoring case), ordered by time.
+//      - The same `AppointmentDTO` projection: a single query however many appointments there are, with no Doctor
+//        (and its available times) or Patient loaded per row.
+    List<AppointmentDTO> findHistoryByPatientId(Long patientId);
+
+    List<AppointmentDTO> findHistoryByDoctorNameAndPatientId(String doctorName, Long patientId);
+
+//    - **findHistoryPage**:
+//      - One page (at most `limit` rows) of a patient's appointments, optionally only with doctors whose name contains `doctorName`.
+//      - `future` true: scheduled appointments at or after `now`, soonest first. `future` false: appointments before `now` or
+//        no longer scheduled, most recent first. `future` null: all of them, oldest first.
+//      - Keyset pagination: `afterTime`/`afterId` are the time and id of the last row of the previous page (both null for the
+//        first page), so every page is an index range scan on (patient_id, appointment_time) however deep it is.
+    List<AppointmentDTO> findHistoryPage(Long patientId, String doctorName, Boolean future, LocalDateTime now,
+                                         LocalDateTime afterTime, Long afterId, int limit);
+
+//    - **findByPatientId**:
+//      - This method retrieves all appointments for a specific patient.
+//      - Return type: List<Appointment>
+//      - Parameters: Long patientId
+    List<Appointment> findByPatientId(Long patientId);
+
+//    - **findByPatient_IdAndStatusOrderByAppointmentTimeAsc**:
+//      - This method retrieves all appointments for a specific patient with a given status, ordered by the appointment time.
+//      - Return type: List<Appointment>
+//      - Parameters: Long patientId, int status
+    List<Appointment> findByPatient_IdAndStatusOrderByAppointmentTimeAsc(Long patientId, int status);
+
+//    - **filterByDoctorNameAndPatientId**:
+//      - This method retrieves appointments based on a doctor’s name (using a LIKE query) and the patient’s ID.
+//      - Return type: List<Appointment>
+//      - Parameters: String doctorName, Long patientId
+    List<Appointment> filterByDoctorNameAndPatientId(String doctorName, Long patientId);
+
+//    - **filterByDoctorNameAndPatientIdAndStatus**:
+//      - This method retrieves appointments based on a doctor’s name (using a LIKE query), patient’s ID, and a specific appointment status.
+//      - Return type: List<Appointment>
+//      - Parameters: String doctorName, Long patientId, int status
+    List<Appointment> filterByDoctorNameAndPatientIdAndStatus(String doctorName, Long patientId, int status);
+
+//    - **archiveChanged**:
+//      - Called by the archiver after moving rows, so the next read sees the new archive boundary at once.
+    void archiveChanged();
+}
@@ -0,0 +1,296 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.ArchivedAppointment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hot/cold routing for {@link AppointmentRepositoryCustom}.
+ * <p>
+ * The archive only ever receives rows older than the archive horizon, so its newest appointment time is a boundary:
+ * a range that starts after it cannot contain archived rows. The boundary is cached for a minute (the archiver runs
+ * nightly and refreshes it right away on this instance); while the archive is empty no query goes near it.
+ * Each method runs in one read-only transaction, so both tables are read from the same snapshot and a row being
+ * moved is seen exactly once.
+ */
+public class AppointmentRepositoryCustomImpl implements AppointmentRepositoryCustom {
+
+    private static final long BOUNDARY_TTL_NANOS = Duration.ofMinutes(1).toNanos();
+
+    // projection used by the read-only views; the doctor is only needed by id, which is the foreign key column
+    private static final String DTO_SELECT = "SELECT new com.project.back_end.DTO.AppointmentDTO(" +
+            "a.id, a.doctor.id, p.id, p.name, p.email, p.phone, p.address, a.appointmentTime, a.status) ";
+    private static final String ORDER_BY_TIME = " ORDER BY a.appointmentTime";
+    private static final Comparator<AppointmentDTO> BY_TIME_AND_ID =
+            Comparator.comparing(AppointmentDTO::getAppointmentTime).thenComparing(AppointmentDTO::getId);
+
+    private final EntityManager entityManager;
+    private final ArchivedAppointmentRepository archive;
+
+    private volatile LocalDateTime archivedUntil;
+    private volatile long boundaryLoadedAt;
+    private volatile boolean boundaryLoaded;
+
+    public AppointmentRepositoryCustomImpl(EntityManager entityManager, ArchivedAppointmentRepository archive) {
+        this.entityManager = entityManager;
+        this.archive = archive;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Appointment> findByDoctorIdAndAppointmentTimeBetween(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        List<Appointment> hot = entityManager.createQuery("SELECT a FROM Appointment a " +
+                        "LEFT JOIN FETCH a.doctor d " +
+                        "WHERE d.id = :doctorId " +
+                        "AND a.appointmentTime BETWEEN :start AND :end", Appointment.class)
+                .setParameter("doctorId", doctorId)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .getResultList();
+        if (!reachesArchive(start)) {
+            return hot;
+        }
+        return combine(archive.findByDoctorIdAndAppointmentTimeBetween(doctorId, start, end), hot, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Appointment> findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
+            Long doctorId, String patientName, LocalDateTime start, LocalDateTime end) {
+        List<Appointment> hot = entityManager.createQuery("SELECT a FROM Appointment a " +
+                        "LEFT JOIN FETCH a.doctor d " +
+                        "LEFT JOIN FETCH a.patient p " +
+                        "WHERE d.id = :doctorId " +
+                        "AND LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%')) " +
+                        "AND a.appointmentTime BETWEEN :start AND :end", Appointment.class)
+                .setParameter("doctorId", doctorId)
+                .setParameter("patientName", patientName)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .getResultList();
+        if (!reachesArchive(start)) {
+            return hot;
+        }
+        return combine(archive.findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
+                doctorId, patientName, start, end), hot, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> findScheduleByDoctorIdAndAppointmentTimeBetween(Long doctorId, String patientName,
+                                                                                LocalDateTime start, LocalDateTime end) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("doctorId", doctorId);
+        parameters.put("start", start);
+        parameters.put("end", end);
+        String where = "a.doctor.id = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end";
+        if (patientName != null && !patientName.isEmpty()) {
+            where += " AND LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%'))";
+            parameters.put("patientName", patientName);
+        }
+        return projected("", where, parameters, start, ORDER_BY_TIME, BY_TIME_AND_ID, 0);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> findHistoryByPatientId(Long patientId) {
+        return projected("", "p.id = :patientId", Map.of("patientId", patientId), null, ORDER_BY_TIME, BY_TIME_AND_ID, 0);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> findHistoryByDoctorNameAndPatientId(String doctorName, Long patientId) {
+        return projected(" JOIN a.doctor d",
+                "p.id = :patientId AND LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%'))",
+                Map.of("patientId", patientId, "doctorName", doctorName), null, ORDER_BY_TIME, BY_TIME_AND_ID, 0);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> findHistoryPage(Long patientId, String doctorName, Boolean future, LocalDateTime now,
+                                                LocalDateTime afterTime, Long afterId, int limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("patientId", patientId);
+        StringBuilder where = new StringBuilder("p.id = :patientId");
+        String joins = "";
+        if (doctorName != null && !doctorName.isEmpty()) {
+            joins = " JOIN a.doctor d";
+            where.append(" AND LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%'))");
+            parameters.put("doctorName", doctorName);
+        }
+        if (future != null) {
+            where.append(future
+                    ? " AND a.appointmentTime >= :now AND a.status = :scheduled"
+                    : " AND (a.appointmentTime < :now OR a.status <> :scheduled)");
+            parameters.put("now", now);
+            parameters.put("scheduled", Appointment.SCHEDULED);
+        }
+        boolean descending = Boolean.FALSE.equals(future);
+        if (afterTime != null) {
+            // the first condition bounds the index range, the second only breaks ties at the same time
+            where.append(descending
+                    ? " AND a.appointmentTime <= :afterTime AND (a.appointmentTime < :afterTime OR a.id < :afterId)"
+                    : " AND a.appointmentTime >= :afterTime AND (a.appointmentTime > :afterTime OR a.id > :afterId)");
+            parameters.put("afterTime", afterTime);
+            parameters.put("afterId", afterId != null ? afterId : descending ? Long.MAX_VALUE : 0L);
+        }
+
+        // only pages walking forward in time have a lower bound that can keep them out of the archive
+        LocalDateTime start = Boolean.TRUE.equals(future) ? now : null;
+        if (future == null && afterTime != null) {
+            start = afterTime;
+        }
+        return descending
+                ? projected(joins, where.toString(), parameters, start,
+                        " ORDER BY a.appointmentTime DESC, a.id DESC", BY_TIME_AND_ID.reversed(), limit)
+                : projected(joins, where.toString(), parameters, start,
+                        " ORDER BY a.appointmentTime, a.id", BY_TIME_AND_ID, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Appointment> findByPatientId(Long patientId) {
+        List<Appointment> hot = entityManager.createQuery(
+                        "SELECT a FROM Appointment a WHERE a.patient.id = :patientId", Appointment.class)
+                .setParameter("patientId", patientId)
+                .getResultList();
+        if (!reachesArchive(null)) {
+            return hot;
+        }
+        return combine(archive.findByPatientId(patientId), hot, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Appointment> findByPatient_IdAndStatusOrderByAppointmentTimeAsc(Long patientId, int status) {
+        List<Appointment> hot = entityManager.createQuery("SELECT a FROM Appointment a " +
+                        "WHERE a.patient.id = :patientId AND a.status = :status " +
+                        "ORDER BY a.appointmentTime ASC", Appointment.class)
+                .setParameter("patientId", patientId)
+                .setParameter("status", status)
+                .getResultList();
+        if (!reachesArchive(null)) {
+            return hot;
+        }
+        return combine(archive.findByPatient_IdAndStatusOrderByAppointmentTimeAsc(patientId, status), hot, true);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Appointment> filterByDoctorNameAndPatientId(String doctorName, Long patientId) {
+        List<Appointment> hot = entityManager.createQuery("SELECT a FROM Appointment a " +
+                        "LEFT JOIN FETCH a.doctor d " +
+                        "WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) " +
+                        "AND a.patient.id = :patientId", Appointment.class)
+                .setParameter("doctorName", doctorName)
+                .setParameter("patientId", patientId)
+                .getResultList();
+        if (!reachesArchive(null)) {
+            return hot;
+        }
+        return combine(archive.filterByDoctorNameAndPatientId(doctorName, patientId), hot, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Appointment> filterByDoctorNameAndPatientIdAndStatus(String doctorName, Long patientId, int status) {
+        List<Appointment> hot = entityManager.createQuery("SELECT a FROM Appointment a " +
+                        "LEFT JOIN FETCH a.doctor d " +
+                        "WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) " +
+                        "AND a.patient.id = :patientId " +
+                        "AND a.status = :status", Appointment.class)
+                .setParameter("doctorName", doctorName)
+                .setParameter("patientId", patientId)
+                .setParameter("status", status)
+                .getResultList();
+        if (!reachesArchive(null)) {
+            return hot;
+        }
+        return combine(archive.filterByDoctorNameAndPatientIdAndStatus(doctorName, patientId, status), hot, false);
+    }
+
+    @Override
+    public void archiveChanged() {
+        boundaryLoaded = false;
+    }
+
+    /**
+     * Runs the {@code AppointmentDTO} projection with the given extra joins, condition and order against the hot table
+     * and, if a range starting at {@code start} reaches into it, the archive. The result is in {@code comparator} order;
+     * with a {@code limit} above 0 each table returns at most that many rows and so does the combined result.
+     */
+    private List<AppointmentDTO> projected(String joins, String where, Map<String, Object> parameters, LocalDateTime start,
+                                           String orderBy, Comparator<AppointmentDTO> comparator, int limit) {
+        List<AppointmentDTO> hot = projection("Appointment", joins, where, parameters, orderBy, limit);
+        if (!reachesArchive(start)) {
+            return hot;
+        }
+        List<AppointmentDTO> archived = projection("ArchivedAppointment", joins, where, parameters, orderBy, limit);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<AppointmentDTO> combined = new ArrayList<>(archived.size() + hot.size());
+        combined.addAll(archived);
+        combined.addAll(hot);
+        combined.sort(comparator);
+        if (limit > 0 && combined.size() > limit) {
+            return new ArrayList<>(combined.subList(0, limit));
+        }
+        return combined;
+    }
+
+    private List<AppointmentDTO> projection(String entity, String joins, String where, Map<String, Object> parameters,
+                                            String orderBy, int limit) {
+        TypedQuery<AppointmentDTO> query = entityManager.createQuery(DTO_SELECT + "FROM " + entity + " a JOIN a.patient p"
+                + joins + " WHERE " + where + orderBy, AppointmentDTO.class);
+        parameters.forEach(query::setParameter);
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * True if a range starting at {@code start} ({@code null} for "no lower bound") can contain archived rows.
+     */
+    private boolean reachesArchive(LocalDateTime start) {
+        LocalDateTime until = archivedUntil();
+        return until != null && (start == null || !start.isAfter(until));
+    }
+
+    private LocalDateTime archivedUntil() {
+        long now = System.nanoTime();
+        if (!boundaryLoaded || now - boundaryLoadedAt > BOUNDARY_TTL_NANOS) {
+            archivedUntil = archive.findLatestAppointmentTime();
+            boundaryLoadedAt = now;
+            boundaryLoaded = true;
+        }
+        return archivedUntil;
+    }
+
+    private static List<Appointment> combine(List<ArchivedAppointment> archived, List<Appointment> hot, boolean sortByTime) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<Appointment> combined = new ArrayList<>(archived.size() + hot.size());
+        for (ArchivedAppointment appointment : archived) {
+            combined.add(appointment.toAppointment());
+        }
+        combined.addAll(hot);
+        if (sortByTime) {
+            combined.sort(Comparator.comparing(Appointment::getAppointmentTime));
+        }
+        return combined;
+    }
+}
@@ -0,0 +1,110 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.ArchivedAppointment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+// 1. Extend JpaRepository:
+//    - Appointments moved out of the hot `appointment` table (see `AppointmentArchiver`).
+//    - The read queries mirror those of `AppointmentRepository`, which falls back to them when a request reaches into the archive.
+
+// 2. Custom Query Methods:
+
+//    - **findLatestAppointmentTime**:
+//      - Start time of the newest archived appointment, or null while the archive is empty. Answered from the appointment_time index.
+    @Query("SELECT MAX(a.appointmentTime) FROM ArchivedAppointment a")
+    public LocalDateTime findLatestAppointmentTime();
+
+//    - **findEarliestAppointmentTime**:
+//      - Start time of the oldest archived appointment, or null while the archive is empty.
+    @Query("SELECT MIN(a.appointmentTime) FROM ArchivedAppointment a")
+    public LocalDateTime findEarliestAppointmentTime();
+
+//    - **findByDoctorIdAndAppointmentTimeBetween**:
+//      - Archived appointments of a doctor within a time range, with doctor and patient fetched.
+    @Query("SELECT a FROM ArchivedAppointment a " +
+            "JOIN FETCH a.doctor d " +
+            "JOIN FETCH a.patient p " +
+            "WHERE d.id = :doctorId " +
+            "AND a.appointmentTime BETWEEN :start AND :end")
+    public List<ArchivedAppointment> findByDoctorIdAndAppointmentTimeBetween(
+        @Param("doctorId") Long doctorId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+//    - **findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween**:
+//      - Same, restricted to patients whose name contains the given text (ignoring case).
+    @Query("SELECT a FROM ArchivedAppointment a " +
+            "JOIN FETCH a.doctor d " +
+            "JOIN FETCH a.patient p " +
+            "WHERE d.id = :doctorId " +
+            "AND LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%')) " +
+            "AND a.appointmentTime BETWEEN :start AND :end")
+    public List<ArchivedAppointment> findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
+        @Param("doctorId") Long doctorId, @Param("patientName") String patientName, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+//    - **findByPatientId**:
+//      - All archived appointments of a patient.
+    @Query("SELECT a FROM ArchivedAppointment a " +
+            "JOIN FETCH a.doctor d " +
+            "JOIN FETCH a.patient p " +
+            "WHERE p.id = :patientId")
+    public List<ArchivedAppointment> findByPatientId(@Param("patientId") Long patientId);
+
+//    - **findByPatient_IdAndStatusOrderByAppointmentTimeAsc**:
+//      - Archived appointments of a patient with the given status, oldest first.
+    @Query("SELECT a FROM ArchivedAppointment a " +
+            "JOIN FETCH a.doctor d " +
+            "JOIN FETCH a.patient p " +
+            "WHERE p.id = :patientId AND a.status = :status ORDER BY a.appointmentTime ASC")
+    public List<ArchivedAppointment> findByPatient_IdAndStatusOrderByAppointmentTimeAsc(@Param("patientId") Long patientId, @Param("status") int status);
+
+//    - **filterByDoctorNameAndPatientId** and **filterByDoctorNameAndPatientIdAndStatus**:
+//      - Archived appointments of a patient with doctors whose name contains the given text, optionally with a given status.
+    @Query("SELECT a FROM ArchivedAppointment a " +
+            "JOIN FETCH a.doctor d " +
+            "JOIN FETCH a.patient p " +
+            "WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) " +
+            "AND p.id = :patientId")
+    public List<ArchivedAppointment> filterByDoctorNameAndPatientId(@Param("doctorName") String doctorName, @Param("patientId") Long patientId);
+
+    @Query("SELECT a FROM ArchivedAppointment a " +
+            "JOIN FETCH a.doctor d " +
+            "JOIN FETCH a.patient p " +
+            "WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) " +
+            "AND p.id = :patientId " +
+            "AND a.status = :status")
+    public List<ArchivedAppointment> filterByDoctorNameAndPatientIdAndStatus(@Param("doctorName") String doctorName, @Param("patientId") Long patientId, @Param("status") int status);
+
+//    - **copyFromAppointments**:
+//      - Copies the given rows of the hot table into the archive in one `INSERT ... SELECT`. Must run in the same transaction
+//        as the delete from `appointment`, so a row is always in exactly one of the two tables.
+//      - Return type: int (number of rows copied)
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO appointment_archive (id, doctor_id, patient_id, appointment_time, status, archived_at) " +
+            "SELECT id, doctor_id, patient_id, appointment_time, status, :archivedAt FROM appointment WHERE id IN :ids",
+            nativeQuery = true)
+    public int copyFromAppointments(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+//    - **deleteChunkByDoctorId**, **deleteAllByDoctorId** and **countByDoctorId**:
+//      - Used when a doctor is deleted (see `DoctorDeletionJob`); the chunked delete keeps each transaction short.
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM appointment_archive WHERE doctor_id = :doctorId LIMIT :limit", nativeQuery = true)
+    public int deleteChunkByDoctorId(@Param("doctorId") Long doctorId, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ArchivedAppointment a WHERE a.doctor.id = :doctorId")
+    public int deleteAllByDoctorId(@Param("doctorId") Long doctorId);
+
+    public long countByDoctorId(Long doctorId);
+}
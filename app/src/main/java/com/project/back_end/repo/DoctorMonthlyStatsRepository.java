@@ -0,0 +1,106 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.DTO.DoctorRanking;
+import com.project.back_end.models.DoctorMonthlyStats;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DoctorMonthlyStatsRepository extends JpaRepository<DoctorMonthlyStats, DoctorMonthlyStats.Key> {
+
+// 1. Extend JpaRepository:
+//    - The `doctor_monthly_stats` rollup (see `DoctorStatsRollup`). Rows are only written with the native statements
+//      below, which add to a counter in place instead of reading and saving the entity.
+
+// 2. Custom Query Methods:
+
+//    - **add**:
+//      - Adds the deltas to the doctor's row for the month, creating the row if it is missing. Runs in the caller's
+//        transaction, so the counters change exactly when the appointments do.
+    @Modifying
+    @Query(value = "INSERT INTO doctor_monthly_stats (doctor_id, year, month, patients_seen, cancellations) " +
+            "VALUES (:doctorId, :year, :month, :patientsSeen, :cancellations) " +
+            "ON DUPLICATE KEY UPDATE patients_seen = patients_seen + :patientsSeen, cancellations = cancellations + :cancellations",
+            nativeQuery = true)
+    public int add(@Param("doctorId") long doctorId, @Param("year") int year, @Param("month") int month,
+                   @Param("patientsSeen") long patientsSeen, @Param("cancellations") long cancellations);
+
+//    - **rebuildPatientsSeen**:
+//      - Sets patients_seen of every doctor with appointments in [start, end) to their count over the hot and archived
+//        appointments, leaving cancellations alone. The half-open range is served by the appointment_time indexes.
+//      - The appointments are read with shared locks, so bookings for the month wait until the rebuild commits and no
+//        change is counted twice or lost.
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO doctor_monthly_stats (doctor_id, year, month, patients_seen, cancellations) " +
+            "SELECT s.doctor_id, :year, :month, s.seen, 0 FROM (" +
+            "  SELECT a.doctor_id, COUNT(*) AS seen FROM (" +
+            "    SELECT doctor_id FROM appointment " +
+            "    WHERE appointment_time >= :start AND appointment_time < :end AND status <> :noShow " +
+            "    UNION ALL " +
+            "    SELECT doctor_id FROM appointment_archive " +
+            "    WHERE appointment_time >= :start AND appointment_time < :end AND status <> :noShow" +
+            "  ) a GROUP BY a.doctor_id" +
+            ") s " +
+            "ON DUPLICATE KEY UPDATE patients_seen = s.seen",
+            nativeQuery = true)
+    public int rebuildPatientsSeen(@Param("year") int year, @Param("month") int month,
+                                   @Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                   @Param("noShow") int noShow);
+
+//    - **clearPatientsSeenWithoutAppointments**:
+//      - Second half of a month's rebuild: zeroes patients_seen of doctors that no longer have any counted appointment in [start, end).
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE doctor_monthly_stats st SET st.patients_seen = 0 " +
+            "WHERE st.year = :year AND st.month = :month AND st.patients_seen <> 0 " +
+            "AND NOT EXISTS (SELECT 1 FROM appointment a WHERE a.doctor_id = st.doctor_id " +
+            "  AND a.appointment_time >= :start AND a.appointment_time < :end AND a.status <> :noShow) " +
+            "AND NOT EXISTS (SELECT 1 FROM appointment_archive a WHERE a.doctor_id = st.doctor_id " +
+            "  AND a.appointment_time >= :start AND a.appointment_time < :end AND a.status <> :noShow)",
+            nativeQuery = true)
+    public int clearPatientsSeenWithoutAppointments(@Param("year") int year, @Param("month") int month,
+                                                    @Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                                    @Param("noShow") int noShow);
+
+//    - **clearPatientsSeenOutside**:
+//      - Zeroes patients_seen of every month before `first` or after `last` (months counted as year * 12 + month - 1),
+//        i.e. months without any appointment left.
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE doctor_monthly_stats SET patients_seen = 0 " +
+            "WHERE patients_seen <> 0 AND (year * 12 + month - 1 < :first OR year * 12 + month - 1 > :last)",
+            nativeQuery = true)
+    public int clearPatientsSeenOutside(@Param("first") long first, @Param("last") long last);
+
+//    - **deleteByDoctorId**:
+//      - Drops the rows of a doctor who is being deleted.
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DoctorMonthlyStats s WHERE s.doctorId = :doctorId")
+    public int deleteByDoctorId(@Param("doctorId") long doctorId);
+
+//    - **findMonthlyLeaderboard**:
+//      - Doctors with the most patients seen in the month, best first; one index range read of the month's rows.
+    @Query("SELECT new com.project.back_end.DTO.DoctorRanking(d.id, d.name, d.specialty, s.patientsSeen, s.cancellations) " +
+            "FROM DoctorMonthlyStats s JOIN Doctor d ON d.id = s.doctorId " +
+            "WHERE s.year = :year AND s.month = :month " +
+            "ORDER BY s.patientsSeen DESC, d.id")
+    public List<DoctorRanking> findMonthlyLeaderboard(@Param("year") int year, @Param("month") int month, Limit limit);
+
+//    - **findYearlyLeaderboard**:
+//      - Same for a whole year: adds up at most twelve rows per doctor.
+    @Query("SELECT new com.project.back_end.DTO.DoctorRanking(d.id, d.name, d.specialty, SUM(s.patientsSeen), SUM(s.cancellations)) " +
+            "FROM DoctorMonthlyStats s JOIN Doctor d ON d.id = s.doctorId " +
+            "WHERE s.year = :year " +
+            "GROUP BY d.id, d.name, d.specialty " +
+            "ORDER BY SUM(s.patientsSeen) DESC, d.id")
+    public List<DoctorRanking> findYearlyLeaderboard(@Param("year") int year, Limit limit);
+
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface DoctorRepository extends JpaRepository<Doctor,Long> {
@@ -49,6 +50,10 @@ public interface DoctorRepository extends JpaRepository<Doctor,Long> {
 
     @Query("Select d from Doctor d where upper(d.specialty) = upper(:specialty)")
     public List<Doctor> findBySpecialtyIgnoreCase(@Param("specialty")String specialty);
+
+//    - **countByIdIn**:
+//      - Number of the given ids that exist, to validate a bulk import with one query.
+    public long countByIdIn(Collection<Long> ids);
 // 3. @Repository annotation:
 //    - The @Repository annotation marks this interface as a Spring Data JPA repository.
 //    - Spring Data JPA automatically implements this repository, providing the necessary CRUD functionality and custom queries defined in the interface.
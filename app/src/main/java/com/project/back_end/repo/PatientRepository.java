@@ -2,6 +2,11 @@ package com.project.back_end.repo;
 
 import com.project.back_end.models.Patient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     // 1. Extend JpaRepository:
@@ -26,6 +31,15 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
 //      - Parameters: String email, String phone
     public Patient findByEmailOrPhone(String email, String phone);
 
+    // Bulk import helpers: one query per import instead of one lookup per row.
+    public long countByIdIn(Collection<Long> ids);
+
+    @Query("SELECT p.email FROM Patient p WHERE p.email IN :emails")
+    public List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT p.phone FROM Patient p WHERE p.phone IN :phones")
+    public List<String> findExistingPhones(@Param("phones") Collection<String> phones);
+
     
 
 // 3. @Repository annotation:
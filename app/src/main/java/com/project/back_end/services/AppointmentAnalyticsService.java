@@ -0,0 +1,284 @@
+package com.project.back_end.services;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import com.project.back_end.models.Appointment;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Utilization, no-show rate and busiest hours by specialty for the admin dashboard, computed from an
+ * {@link AppointmentSnapshot} instead of the live tables.
+ * <p>
+ * Every {@code analytics.refresh-millis} the appointments from {@code analytics.window-days-back} days ago to
+ * {@code analytics.window-days-ahead} days ahead (hot and archived) are streamed into a new snapshot with one
+ * forward-only read, like the daily report, and swapped in when complete; queries keep using the previous one until
+ * then. The refresh has its own thread, so its multi-second read does not hold up the jobs on the shared scheduler. A
+ * query never touches MySQL: it is one parallel pass over the snapshot on a fork-join pool of
+ * {@code analytics.parallelism} threads (all cores by default), so the charts may be up to one refresh behind.
+ */
+@Service
+public class AppointmentAnalyticsService {
+
+    private static final Logger logger = Logger.getLogger(AppointmentAnalyticsService.class.getName());
+
+    private static final String DOCTORS_SQL =
+            "SELECT d.id, d.specialty, COUNT(t.available_times) FROM doctor d " +
+            "LEFT JOIN doctor_available_times t ON t.doctor_id = d.id " +
+            "GROUP BY d.id, d.specialty";
+
+    private static final String APPOINTMENTS_SQL =
+            "SELECT doctor_id, appointment_time, status FROM appointment " +
+            "WHERE appointment_time >= ? AND appointment_time < ? " +
+            "UNION ALL " +
+            "SELECT doctor_id, appointment_time, status FROM appointment_archive " +
+            "WHERE appointment_time >= ? AND appointment_time < ?";
+
+    private static final int TOP_DOCTORS = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ForkJoinPool pool;
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "analytics-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final int windowDaysBack;
+    private final int windowDaysAhead;
+
+    private volatile Snapshot current;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+    private volatile String lastError;
+
+    public AppointmentAnalyticsService(DataSource dataSource,
+                                       @Value("${analytics.window-days-back:365}") int windowDaysBack,
+                                       @Value("${analytics.window-days-ahead:90}") int windowDaysAhead,
+                                       @Value("${analytics.parallelism:0}") int parallelism,
+                                       @Value("${analytics.refresh-millis:900000}") long refreshMillis,
+                                       @Value("${analytics.initial-delay-millis:60000}") long initialDelayMillis) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.windowDaysBack = Math.max(1, windowDaysBack);
+        this.windowDaysAhead = Math.max(0, windowDaysAhead);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        refresher.scheduleWithFixedDelay(this::refresh, Math.max(0, initialDelayMillis), Math.max(1000, refreshMillis),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Builds a new snapshot and swaps it in. Returns false if a refresh is running already or failed.
+     */
+    public boolean refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return false;
+        }
+        long started = System.nanoTime();
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDate from = today.minusDays(windowDaysBack);
+            LocalDate to = today.plusDays(windowDaysAhead + 1L);
+            Snapshot previous = current;
+            AppointmentSnapshot.Builder builder = AppointmentSnapshot.builder(previous != null ? previous.data.size() + previous.data.size() / 8 : 0);
+            jdbcTemplate.query(DOCTORS_SQL, (RowCallbackHandler) rs ->
+                    builder.addDoctor(rs.getLong(1), rs.getString(2), rs.getInt(3)));
+            LocalDateTime start = from.atStartOfDay();
+            LocalDateTime end = to.atStartOfDay();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(APPOINTMENTS_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                // stream the rows instead of buffering the whole window in the driver
+                statement.setFetchSize(Integer.MIN_VALUE);
+                statement.setObject(1, start);
+                statement.setObject(2, end);
+                statement.setObject(3, start);
+                statement.setObject(4, end);
+                return statement;
+            }, (RowCallbackHandler) rs -> builder.add(rs.getLong(1), rs.getObject(2, LocalDateTime.class), rs.getInt(3)));
+            AppointmentSnapshot data = builder.build();
+            long millis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+            current = new Snapshot(data, from, to, LocalDateTime.now(), millis, builder.getSkipped());
+            refreshes.incrementAndGet();
+            lastError = null;
+            logger.info("Analytics snapshot of " + data.size() + " appointments built in " + millis + " ms");
+            return true;
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            logger.log(Level.WARNING, "Analytics snapshot refresh failed", e);
+            return false;
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * Analytics of the appointments on the days {@code from} to {@code to} (both included), limited to the snapshot's
+     * window, or null while no snapshot has been built. Throws {@code IllegalArgumentException} if {@code to} is before
+     * {@code from}.
+     */
+    public Map<String, Object> getAnalytics(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            return null;
+        }
+        queries.incrementAndGet();
+        long started = System.nanoTime();
+        LocalDate start = from.isBefore(snapshot.from) ? snapshot.from : from;
+        LocalDate end = to.plusDays(1).isAfter(snapshot.to) ? snapshot.to : to.plusDays(1);
+        long days = Math.max(0, ChronoUnit.DAYS.between(start, end));
+        AppointmentSnapshot data = snapshot.data;
+        // a range outside the window matches nothing
+        AppointmentSnapshot.Counts counts = days == 0 ? data.countSequentially(0, 0)
+                : data.count(AppointmentSnapshot.epochMinute(start.atStartOfDay()), AppointmentSnapshot.epochMinute(end.atStartOfDay()), pool);
+
+        String[] specialties = data.getSpecialties();
+        int[] doctors = data.countDoctorsBySpecialty();
+        long[] slotsPerDay = data.countSlotsPerDayBySpecialty();
+        List<Map<String, Object>> bySpecialty = new ArrayList<>();
+        long total = 0;
+        for (int s = 0; s < specialties.length; s++) {
+            long appointments = counts.total(s);
+            total += appointments;
+            long seen = counts.get(s, Appointment.COMPLETED) + counts.get(s, Appointment.PRESCRIBED);
+            long noShows = counts.get(s, Appointment.NO_SHOW);
+            long[] byHour = counts.byHour(s);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("specialty", specialties[s]);
+            row.put("doctors", doctors[s]);
+            row.put("appointments", appointments);
+            row.put("scheduled", counts.get(s, Appointment.SCHEDULED));
+            row.put("seen", seen);
+            row.put("noShows", noShows);
+            // of the appointments that are over and have an outcome
+            row.put("noShowRate", seen + noShows > 0 ? (double) noShows / (seen + noShows) : null);
+            row.put("utilization", utilization(appointments, slotsPerDay[s], days));
+            row.put("busiestHour", appointments > 0 ? argMax(byHour) : null);
+            row.put("byHour", byHour);
+            row.put("byWeekday", counts.byWeekday(s));
+            bySpecialty.add(row);
+        }
+        bySpecialty.sort(Comparator.comparingLong((Map<String, Object> row) -> (long) row.get("appointments")).reversed());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", start);
+        result.put("to", end.minusDays(1));
+        result.put("days", days);
+        result.put("appointments", total);
+        result.put("specialties", bySpecialty);
+        result.put("mostBookedDoctors", mostBookedDoctors(data, counts, specialties, days));
+        result.put("snapshotBuiltAt", snapshot.builtAt);
+        result.put("queryMillis", (System.nanoTime() - started) / 1_000_000.0);
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot snapshot = current;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("refreshing", refreshing.get());
+        stats.put("refreshes", refreshes.get());
+        stats.put("queries", queries.get());
+        stats.put("parallelism", pool.getParallelism());
+        stats.put("lastError", lastError);
+        if (snapshot != null) {
+            stats.put("appointments", snapshot.data.size());
+            stats.put("doctors", snapshot.data.getDoctorCount());
+            stats.put("skippedRows", snapshot.skipped);
+            stats.put("windowFrom", snapshot.from);
+            stats.put("windowTo", snapshot.to.minusDays(1));
+            stats.put("builtAt", snapshot.builtAt);
+            stats.put("buildMillis", snapshot.buildMillis);
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    private static List<Map<String, Object>> mostBookedDoctors(AppointmentSnapshot data, AppointmentSnapshot.Counts counts,
+                                                               String[] specialties, long days) {
+        List<Integer> doctors = new ArrayList<>();
+        for (int d = 0; d < data.getDoctorCount(); d++) {
+            if (counts.byDoctor(d) > 0) {
+                doctors.add(d);
+            }
+        }
+        doctors.sort(Comparator.comparingLong(counts::byDoctor).reversed());
+        List<Map<String, Object>> top = new ArrayList<>();
+        for (int d : doctors.subList(0, Math.min(TOP_DOCTORS, doctors.size()))) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("doctorId", data.getDoctorId(d));
+            row.put("specialty", specialties[data.getDoctorSpecialty(d)]);
+            row.put("appointments", counts.byDoctor(d));
+            row.put("utilization", utilization(counts.byDoctor(d), data.getDoctorSlotsPerDay(d), days));
+            top.add(row);
+        }
+        return top;
+    }
+
+    // share of the available slots (doctors' daily slots times days) that are booked
+    private static Double utilization(long appointments, long slotsPerDay, long days) {
+        long capacity = slotsPerDay * days;
+        return capacity > 0 ? (double) appointments / capacity : null;
+    }
+
+    private static int argMax(long[] values) {
+        int best = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static final class Snapshot {
+        private final AppointmentSnapshot data;
+        private final LocalDate from;
+        // exclusive
+        private final LocalDate to;
+        private final LocalDateTime builtAt;
+        private final long buildMillis;
+        private final long skipped;
+
+        Snapshot(AppointmentSnapshot data, LocalDate from, LocalDate to, LocalDateTime builtAt, long buildMillis, long skipped) {
+            this.data = data;
+            this.from = from;
+            this.to = to;
+            this.builtAt = builtAt;
+            this.buildMillis = buildMillis;
+            this.skipped = skipped;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.project.back_end.services;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+
+/**
+ * Moves appointments older than {@code archive.horizon-days} from the hot {@code appointment} table to
+ * {@code appointment_archive}, so the table (and its indexes and buffer pool share) stays the size of the recent weeks.
+ * <p>
+ * Runs on {@code archive.cron}. Rows go in batches of {@code archive.batch-size}: one keyset query for the next ids,
+ * then {@code INSERT ... SELECT} into the archive and {@code DELETE} from the hot table in one short transaction, so a
+ * row is always in exactly one table. An interrupted run leaves nothing half moved and the next run picks up the rest.
+ * Reads go through {@link com.project.back_end.repo.AppointmentRepositoryCustom}, which only looks at the archive
+ * when a request reaches that far back.
+ */
+@Component
+public class AppointmentArchiver {
+
+    private static final Logger logger = Logger.getLogger(AppointmentArchiver.class.getName());
+
+    private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int horizonDays;
+    private final int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalMoved = new AtomicLong();
+    private final AtomicLong currentMoved = new AtomicLong();
+    private final AtomicLong currentBatches = new AtomicLong();
+    private volatile LocalDateTime lastCutoff;
+    private volatile LocalDateTime lastFinishedAt;
+    private volatile long lastDurationMillis;
+    private volatile String lastError;
+
+    public AppointmentArchiver(AppointmentRepository appointmentRepository,
+                               ArchivedAppointmentRepository archivedAppointmentRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${archive.horizon-days:90}") int horizonDays,
+                               @Value("${archive.batch-size:1000}") int batchSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.horizonDays = Math.max(1, horizonDays);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(cron = "${archive.cron:0 30 1 * * *}")
+    public void archiveOldAppointments() {
+        archive(LocalDate.now().minusDays(horizonDays).atStartOfDay());
+    }
+
+    /**
+     * Moves every appointment that started before {@code before} to the archive. Returns the number moved, or -1 if a
+     * run is already in progress.
+     */
+    public long archive(LocalDateTime before) {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        long started = System.nanoTime();
+        lastCutoff = before;
+        currentMoved.set(0);
+        currentBatches.set(0);
+        runs.incrementAndGet();
+        try {
+            long afterId = 0;
+            while (true) {
+                List<Long> ids = appointmentRepository.findIdsByAppointmentTimeBefore(before, afterId, Limit.of(batchSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                LocalDateTime archivedAt = LocalDateTime.now();
+                Integer moved = transactionTemplate.execute(status -> {
+                    int copied = archivedAppointmentRepository.copyFromAppointments(ids, archivedAt);
+                    appointmentRepository.deleteAllByIdInBatch(ids);
+                    return copied;
+                });
+                currentMoved.addAndGet(moved);
+                totalMoved.addAndGet(moved);
+                currentBatches.incrementAndGet();
+                afterId = ids.get(ids.size() - 1);
+                if (ids.size() < batchSize) {
+                    break;
+                }
+            }
+            lastError = null;
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            logger.log(Level.WARNING, "Archiving stopped after " + currentMoved.get() + " appointments", e);
+        } finally {
+            appointmentRepository.archiveChanged();
+            lastDurationMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+            lastFinishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+        logger.info("Archived " + currentMoved.get() + " appointments older than " + before + " in "
+                + currentBatches.get() + " batches (" + lastDurationMillis + " ms)");
+        return currentMoved.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("running", running.get());
+        stats.put("horizonDays", horizonDays);
+        stats.put("batchSize", batchSize);
+        stats.put("runs", runs.get());
+        stats.put("totalMoved", totalMoved.get());
+        // while a run is in progress these are its progress so far, afterwards they describe the last run
+        stats.put("moved", currentMoved.get());
+        stats.put("batches", currentBatches.get());
+        stats.put("lastCutoff", lastCutoff);
+        stats.put("lastFinishedAt", lastFinishedAt);
+        stats.put("lastDurationMillis", lastDurationMillis);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+}
@@ -0,0 +1,280 @@
+package com.project.back_end.services;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.project.back_end.DTO.AppointmentEvent;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes {@link AppointmentEvent}s to the doctors' open dashboards as server-sent events, so a dashboard reloads its
+ * day when something changed instead of polling.
+ * <p>
+ * A dashboard subscribes for one doctor and day. The connection is an async request: while nothing happens it holds no
+ * request thread, only an entry in the per-doctor subscriber set, and an event for a doctor without subscribers is
+ * dropped with one map lookup. Every subscriber has its own queue of at most {@code appointments.feed.max-pending}
+ * events, drained in order by a pool of {@code appointments.feed.sender-threads}, so a slow client never holds up the
+ * request that made the change nor the other dashboards; a client whose queue is full or whose send fails is
+ * unsubscribed (and reconnects). A comment line every {@code appointments.feed.heartbeat-millis}, from the feed's own
+ * timer rather than the shared scheduler the nightly jobs run on, keeps proxies from closing idle connections and finds
+ * dead ones. Connections end after
+ * {@code appointments.feed.timeout-minutes}; the browser's {@code EventSource} reconnects by itself and, since it
+ * gets a {@code ready} event on every connect, the dashboard reloads whatever it missed in between.
+ */
+@Component
+public class AppointmentFeed {
+
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private final int maxPending;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicInteger threadNumber = new AtomicInteger();
+    // at most one drain task per subscriber is queued, so this queue is bounded by max-subscribers
+    private final ExecutorService sender;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "appointment-feed-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AppointmentFeed(@Value("${appointments.feed.timeout-minutes:30}") long timeoutMinutes,
+                           @Value("${appointments.feed.max-subscribers:10000}") int maxSubscribers,
+                           @Value("${appointments.feed.max-pending:16}") int maxPending,
+                           @Value("${appointments.feed.sender-threads:4}") int senderThreads,
+                           @Value("${appointments.feed.heartbeat-millis:25000}") long heartbeatMillis) {
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(Math.max(1, timeoutMinutes));
+        this.maxSubscribers = Math.max(1, maxSubscribers);
+        this.maxPending = Math.max(1, maxPending);
+        this.sender = Executors.newFixedThreadPool(Math.max(1, senderThreads), r -> {
+            Thread thread = new Thread(r, "appointment-feed-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1000, heartbeatMillis);
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a feed of the doctor's changes on {@code day}, or returns null when {@code appointments.feed.max-subscribers}
+     * dashboards are connected already.
+     */
+    public SseEmitter subscribe(long doctorId, LocalDate day) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(doctorId, day, emitter, maxPending);
+        subscribers.compute(doctorId, (id, set) -> {
+            Set<Subscriber> current = set != null ? set : ConcurrentHashMap.newKeySet();
+            current.add(subscriber);
+            return current;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        enqueue(subscriber, SseEmitter.event().name("ready").data(day.toString()), false);
+        return emitter;
+    }
+
+    @EventListener
+    public void onAppointmentEvent(AppointmentEvent event) {
+        published.incrementAndGet();
+        Long previousDoctorId = event.getPreviousDoctorId();
+        if (!subscribers.containsKey(event.getDoctorId())
+                && (previousDoctorId == null || !subscribers.containsKey(previousDoctorId))) {
+            return;
+        }
+        deliver(event);
+    }
+
+    /**
+     * Ends every feed of the doctor, e.g. when the doctor is being deleted.
+     */
+    public void closeDoctor(long doctorId) {
+        Set<Subscriber> set = subscribers.get(doctorId);
+        if (set != null) {
+            for (Subscriber subscriber : set) {
+                remove(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    void heartbeat() {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                // a client that stopped reading fills its queue with these and is dropped
+                enqueue(subscriber, SseEmitter.event().comment("keep-alive"), false);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("subscribers", subscriberCount.get());
+        stats.put("doctors", subscribers.size());
+        stats.put("maxSubscribers", maxSubscribers);
+        stats.put("published", published.get());
+        stats.put("delivered", delivered.get());
+        stats.put("failedSends", failed.get());
+        stats.put("droppedSlowClients", overflowed.get());
+        stats.put("maxPending", maxPending);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        sender.shutdownNow();
+        for (Set<Subscriber> set : subscribers.values()) {
+            set.forEach(subscriber -> subscriber.emitter.complete());
+        }
+    }
+
+    private void deliver(AppointmentEvent event) {
+        Set<Subscriber> targets = new LinkedHashSet<>();
+        collect(targets, event.getDoctorId(), event.getAppointmentTime());
+        if (event.getPreviousDoctorId() != null) {
+            collect(targets, event.getPreviousDoctorId(), event.getPreviousAppointmentTime());
+        }
+        for (Subscriber subscriber : targets) {
+            enqueue(subscriber, SseEmitter.event().name("appointment").data(event, MediaType.APPLICATION_JSON), true);
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event, boolean appointment) {
+        if (subscriber.dropped) {
+            return;
+        }
+        if (!subscriber.pending.offer(new Message(event, appointment))) {
+            // the client has not taken the last max-pending messages; let it reconnect and reload instead. The drain
+            // (busy with this client, or the queue would not be full) ends the connection: the emitter is locked while
+            // it sends, and the caller here may be a request thread
+            overflowed.incrementAndGet();
+            subscriber.dropped = true;
+            remove(subscriber);
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    // one drain per subscriber at a time, so its messages go out in order
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Message message;
+            while ((message = subscriber.pending.poll()) != null) {
+                if (subscriber.dropped) {
+                    subscriber.pending.clear();
+                    subscriber.emitter.completeWithError(new IllegalStateException("Client is not keeping up"));
+                    break;
+                }
+                if (!send(subscriber, message.event)) {
+                    subscriber.pending.clear();
+                    break;
+                }
+                if (message.appointment) {
+                    delivered.incrementAndGet();
+                }
+            }
+            subscriber.draining.set(false);
+            // a message queued after the last poll but before the flag was cleared would be left behind
+            if (subscriber.pending.isEmpty() || !subscriber.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void collect(Set<Subscriber> targets, long doctorId, LocalDateTime time) {
+        Set<Subscriber> set = subscribers.get(doctorId);
+        if (set == null) {
+            return;
+        }
+        for (Subscriber subscriber : set) {
+            // no time: a batch change that may touch any day
+            if (time == null || time.toLocalDate().equals(subscriber.day)) {
+                targets.add(subscriber);
+            }
+        }
+    }
+
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            failed.incrementAndGet();
+            remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        Set<Subscriber> set = subscribers.get(subscriber.doctorId);
+        if (set != null && set.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            // subscribe() adds under the same key lock, so an empty set is only dropped while nobody is joining it
+            subscribers.computeIfPresent(subscriber.doctorId, (id, current) -> current.isEmpty() ? null : current);
+        }
+    }
+
+    private static final class Subscriber {
+        private final long doctorId;
+        private final LocalDate day;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean dropped;
+
+        Subscriber(long doctorId, LocalDate day, SseEmitter emitter, int maxPending) {
+            this.doctorId = doctorId;
+            this.day = day;
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(maxPending);
+        }
+    }
+
+    private static final class Message {
+        private final SseEmitter.SseEventBuilder event;
+        private final boolean appointment;
+
+        Message(SseEmitter.SseEventBuilder event, boolean appointment) {
+            this.event = event;
+            this.appointment = appointment;
+        }
+    }
+}
@@ -2,11 +2,21 @@ package com.project.back_end.services;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Service;
 
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AppointmentEvent;
+import com.project.back_end.DTO.AppointmentSlot;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Doctor;
 import com.project.back_end.repo.AppointmentRepository;
@@ -21,6 +31,12 @@ public class AppointmentService {
     private final TokenService tokenService;
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
+    private final AvailabilityEngine availabilityEngine;
+    private final BatchWriter batchWriter;
+    private final SlotHoldManager slotHolds;
+    private final ApplicationEventPublisher events;
+    private final ScheduleCache scheduleCache;
+    private final DoctorStatsRollup doctorStats;
 
 // 1. **Add @Service Annotation**:
 //    - To indicate that this class is a service layer class for handling business logic.
@@ -31,11 +47,21 @@ public class AppointmentService {
 //    - The `AppointmentService` class requires several dependencies like `AppointmentRepository`, `Service`, `TokenService`, `PatientRepository`, and `DoctorRepository`.
 //    - These dependencies should be injected through the constructor.
 //    - Instruction: Ensure constructor injection is used for proper dependency management in Spring.
-    public AppointmentService(AppointmentRepository appointmentRepository, TokenService tokenService, PatientRepository patientRepository, DoctorRepository doctorRepository) {
+//    - Every committed change is published as an `AppointmentEvent` (see `AppointmentFeed`, which pushes them to the doctors' dashboards).
+//    - Every change is also counted in the doctors' monthly rollups (`DoctorStatsRollup`), in the same transaction.
+    public AppointmentService(AppointmentRepository appointmentRepository, TokenService tokenService, PatientRepository patientRepository, DoctorRepository doctorRepository,
+                              AvailabilityEngine availabilityEngine, BatchWriter batchWriter, SlotHoldManager slotHolds,
+                              ApplicationEventPublisher events, ScheduleCache scheduleCache, DoctorStatsRollup doctorStats) {
         this.appointmentRepository = appointmentRepository;
         this.tokenService = tokenService;
         this.patientRepository = patientRepository;
         this.doctorRepository = doctorRepository;
+        this.availabilityEngine = availabilityEngine;
+        this.batchWriter = batchWriter;
+        this.slotHolds = slotHolds;
+        this.events = events;
+        this.scheduleCache = scheduleCache;
+        this.doctorStats = doctorStats;
     }
 // 3. **Add @Transactional Annotation for Methods that Modify Database**:
 //    - The methods that modify or update the database should be annotated with `@Transactional` to ensure atomicity and consistency of the operations.
@@ -43,27 +69,178 @@ public class AppointmentService {
 
     // 4. **Book Appointment Method**:
 //    - Responsible for saving the new appointment to the database.
-//    - If the save operation fails, it returns `0`; otherwise, it returns `1`.
+//    - If the save operation fails, it returns `0`; if the slot is already taken, it returns `SLOT_TAKEN` (-1); otherwise, it returns `1`.
 //    - Instruction: Ensure that the method handles any exceptions and returns an appropriate result code.
+//    - The slot is claimed in the `AvailabilityEngine` first, so concurrent bookings only contend on the same doctor and time.
+//      A slot held by another patient (`SlotHoldManager`) counts as taken; the patient's own hold is consumed on commit.
+//      The unique (doctor_id, appointment_time) constraint catches anything the engine cannot see (e.g. another instance).
+//    - Once committed, the slot is marked booked; the claim is released when the transaction completes either way.
+    public static final int SLOT_TAKEN = -1;
+    public static final String SLOT_TAKEN_MESSAGE = "Slot is already booked";
+    // what `updateAppointment` and `cancelAppointment` return when they succeed; anything else is an error message
+    public static final String UPDATED_MESSAGE = "Appointment updated successfully";
+    public static final String CANCELED_MESSAGE = "Appointment canceled successfully";
+
     @Modifying
     @Transactional
     public int bookAppointment(Appointment appointment) {
         try {
-            appointmentRepository.save(appointment);
+            long doctorId = appointment.getDoctor().getId();
+            LocalDateTime time = appointment.getAppointmentTime();
+            Long patientId = patientIdOf(appointment);
+            if (!claim(doctorId, time, patientId)) {
+                return SLOT_TAKEN;
+            }
+            try {
+                appointmentRepository.saveAndFlush(appointment);
+                doctorStats.booked(doctorId, time, appointment.getStatus());
+            } catch (RuntimeException e) {
+                availabilityEngine.release(doctorId, time);
+                throw e;
+            }
+            TransactionHooks.afterCompletion(() -> {
+                availabilityEngine.markBooked(doctorId, time);
+                slotHolds.consume(doctorId, time, patientId);
+            }, () -> availabilityEngine.release(doctorId, time));
+            publish(AppointmentEvent.created(doctorId, appointment.getId(), time, appointment.getStatus()));
             return 1;
+        } catch (DataIntegrityViolationException e) {
+            TransactionHooks.setRollbackOnly();
+            if (isUniqueViolation(e)) {
+                availabilityEngine.recordConflict();
+                return SLOT_TAKEN;
+            }
+            return 0;
         } catch (Exception e) {
+            TransactionHooks.setRollbackOnly();
             return 0;
         }
     }
 
+    // 4b. **Book Appointments In Bulk**:
+//    - Inserts up to `MAX_BATCH_SIZE` appointments in one transaction, as JDBC batches (see `BatchWriter`), and returns the number inserted.
+//    - Doctor and patient ids are checked with one count query each and then used as references, so no entity is loaded per row.
+//    - Throws `IllegalArgumentException` for invalid rows or a slot listed twice; a slot that is already booked fails the whole batch
+//      on the unique (doctor_id, appointment_time) constraint (`DataIntegrityViolationException`).
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    @Transactional
+    public int bookAppointments(List<AppointmentDTO> appointments) {
+        if (appointments.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " appointments per batch");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> doctorIds = new HashSet<>();
+        Set<Long> patientIds = new HashSet<>();
+        Set<String> slots = new HashSet<>();
+        for (int i = 0; i < appointments.size(); i++) {
+            AppointmentDTO dto = appointments.get(i);
+            if (dto == null || dto.getDoctorId() == null || dto.getPatientId() == null || dto.getAppointmentTime() == null) {
+                throw new IllegalArgumentException("Appointment " + i + ": doctorId, patientId and appointmentTime are required");
+            }
+            if (!dto.getAppointmentTime().isAfter(now)) {
+                throw new IllegalArgumentException("Appointment " + i + ": appointmentTime must be in the future");
+            }
+            if (!slots.add(dto.getDoctorId() + "@" + dto.getAppointmentTime())) {
+                throw new IllegalArgumentException("Appointment " + i + ": slot is listed twice");
+            }
+            doctorIds.add(dto.getDoctorId());
+            patientIds.add(dto.getPatientId());
+        }
+        if (doctorRepository.countByIdIn(doctorIds) != doctorIds.size()) {
+            throw new IllegalArgumentException("Unknown doctor id in batch");
+        }
+        if (patientRepository.countByIdIn(patientIds) != patientIds.size()) {
+            throw new IllegalArgumentException("Unknown patient id in batch");
+        }
+
+        List<Appointment> entities = new ArrayList<>(appointments.size());
+        for (AppointmentDTO dto : appointments) {
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctorRepository.getReferenceById(dto.getDoctorId()));
+            appointment.setPatient(patientRepository.getReferenceById(dto.getPatientId()));
+            appointment.setAppointmentTime(dto.getAppointmentTime());
+            appointment.setStatus(dto.getStatus());
+            entities.add(appointment);
+        }
+        batchWriter.persistAll(entities);
+        DoctorStatsRollup.Changes changes = doctorStats.changes();
+        for (AppointmentDTO dto : appointments) {
+            changes.booked(dto.getDoctorId(), dto.getAppointmentTime(), dto.getStatus());
+        }
+        changes.apply();
+        TransactionHooks.afterCommit(() -> {
+            for (AppointmentDTO dto : appointments) {
+                availabilityEngine.markBooked(dto.getDoctorId(), dto.getAppointmentTime());
+            }
+        });
+        for (Appointment appointment : entities) {
+            publish(AppointmentEvent.created(appointment.getDoctor().getId(), appointment.getId(),
+                    appointment.getAppointmentTime(), appointment.getStatus()));
+        }
+        return entities.size();
+    }
+
+    // 4c. **Book A Batch Of Requests**:
+//    - Used by `BookingPipeline`: books independent requests in one transaction and one batched insert; returns one result code per request.
+//    - Each slot is claimed like in `bookAppointment`, so a request for a slot that is taken, or claimed earlier in the same batch,
+//      gets `SLOT_TAKEN` while the rest of the batch goes ahead.
+//    - Any other failure (e.g. the unique constraint) rolls back the whole batch and is rethrown; the caller retries per request.
+    @Transactional
+    public int[] bookBatch(List<Appointment> appointments) {
+        int[] results = new int[appointments.size()];
+        List<Appointment> accepted = new ArrayList<>(appointments.size());
+        try {
+            for (int i = 0; i < appointments.size(); i++) {
+                Appointment appointment = appointments.get(i);
+                if (claim(appointment.getDoctor().getId(), appointment.getAppointmentTime(), patientIdOf(appointment))) {
+                    accepted.add(appointment);
+                    results[i] = 1;
+                } else {
+                    results[i] = SLOT_TAKEN;
+                }
+            }
+            batchWriter.persistAll(accepted);
+            DoctorStatsRollup.Changes changes = doctorStats.changes();
+            for (Appointment appointment : accepted) {
+                changes.booked(appointment.getDoctor().getId(), appointment.getAppointmentTime(), appointment.getStatus());
+            }
+            changes.apply();
+        } catch (RuntimeException e) {
+            for (Appointment appointment : accepted) {
+                availabilityEngine.release(appointment.getDoctor().getId(), appointment.getAppointmentTime());
+            }
+            throw e;
+        }
+        TransactionHooks.afterCompletion(() -> {
+            for (Appointment appointment : accepted) {
+                availabilityEngine.markBooked(appointment.getDoctor().getId(), appointment.getAppointmentTime());
+                slotHolds.consume(appointment.getDoctor().getId(), appointment.getAppointmentTime(), patientIdOf(appointment));
+            }
+        }, () -> {
+            for (Appointment appointment : accepted) {
+                availabilityEngine.release(appointment.getDoctor().getId(), appointment.getAppointmentTime());
+            }
+        });
+        for (Appointment appointment : accepted) {
+            publish(AppointmentEvent.created(appointment.getDoctor().getId(), appointment.getId(),
+                    appointment.getAppointmentTime(), appointment.getStatus()));
+        }
+        return results;
+    }
+
     // 5. **Update Appointment Method**:
 //    - This method is used to update an existing appointment based on its ID.
 //    - It validates whether the patient ID matches, checks if the appointment is available for updating, and ensures that the doctor is available at the specified time.
 //    - If the update is successful, it saves the appointment; otherwise, it returns an appropriate error message.
 //    - Instruction: Ensure proper validation and error handling is included for appointment updates.
+//    - Moving to another doctor or time claims the new slot exactly like `bookAppointment`; returns `SLOT_TAKEN_MESSAGE` if it is taken.
+//    - The appointment is read with a lock, so a status change committed meanwhile cannot slip in between the status read
+//      here and the one the doctor's rollup is corrected by.
+    @Transactional
     public String updateAppointment(Long appointmentId, Appointment updatedAppointment) {
         try {
-            Appointment existingAppointment = appointmentRepository.findById(appointmentId).orElseThrow(() -> new RuntimeException("Appointment not found"));
+            Appointment existingAppointment = appointmentRepository.findByIdForUpdate(appointmentId).orElseThrow(() -> new RuntimeException("Appointment not found"));
             if (!existingAppointment.getPatient().getId().equals(updatedAppointment.getPatient().getId())) {
                 return "Unauthorized: Patient ID does not match";
             }
@@ -73,12 +250,47 @@ public class AppointmentService {
             if (!doctorRepository.existsById(updatedAppointment.getDoctor().getId())) {
                 return "Doctor not found";
             }
+            long previousDoctorId = existingAppointment.getDoctor().getId();
+            LocalDateTime previousTime = existingAppointment.getAppointmentTime();
+            int previousStatus = existingAppointment.getStatus();
+            long doctorId = updatedAppointment.getDoctor().getId();
+            LocalDateTime time = updatedAppointment.getAppointmentTime();
+            boolean moved = doctorId != previousDoctorId || !time.equals(previousTime);
+            Long patientId = patientIdOf(existingAppointment);
+            if (moved && !claim(doctorId, time, patientId)) {
+                return SLOT_TAKEN_MESSAGE;
+            }
             existingAppointment.setDoctor(updatedAppointment.getDoctor());
-            existingAppointment.setAppointmentTime(updatedAppointment.getAppointmentTime());
+            existingAppointment.setAppointmentTime(time);
             existingAppointment.setStatus(updatedAppointment.getStatus());
-            appointmentRepository.save(existingAppointment);
-            return "Appointment updated successfully";
+            try {
+                appointmentRepository.saveAndFlush(existingAppointment);
+                doctorStats.moved(previousDoctorId, previousTime, previousStatus, doctorId, time, existingAppointment.getStatus());
+            } catch (RuntimeException e) {
+                if (moved) {
+                    availabilityEngine.release(doctorId, time);
+                }
+                throw e;
+            }
+            if (moved) {
+                TransactionHooks.afterCompletion(() -> {
+                    availabilityEngine.markFree(previousDoctorId, previousTime);
+                    availabilityEngine.markBooked(doctorId, time);
+                    slotHolds.consume(doctorId, time, patientId);
+                }, () -> availabilityEngine.release(doctorId, time));
+            }
+            publish(AppointmentEvent.updated(doctorId, appointmentId, time, existingAppointment.getStatus(),
+                    previousDoctorId, previousTime));
+            return UPDATED_MESSAGE;
+        } catch (DataIntegrityViolationException e) {
+            TransactionHooks.setRollbackOnly();
+            if (isUniqueViolation(e)) {
+                availabilityEngine.recordConflict();
+                return SLOT_TAKEN_MESSAGE;
+            }
+            return "Error updating appointment: " + e.getMessage();
         } catch (Exception e) {
+            TransactionHooks.setRollbackOnly();
             return "Error updating appointment: " + e.getMessage();
         }
     }
@@ -87,16 +299,24 @@ public class AppointmentService {
 //    - This method cancels an appointment by deleting it from the database.
 //    - It ensures the patient who owns the appointment is trying to cancel it and handles possible errors.
 //    - Instruction: Make sure that the method checks for the patient ID match before deleting the appointment.
+//    - The appointment is read with a lock, as in `updateAppointment`, so the doctor's rollup is corrected by the status
+//      that is actually deleted.
     @Transactional
     public String cancelAppointment(Long appointmentId, Long patientId) {
         try {
-            Appointment existingAppointment = appointmentRepository.findById(appointmentId).orElseThrow(() -> new RuntimeException("Appointment not found"));
+            Appointment existingAppointment = appointmentRepository.findByIdForUpdate(appointmentId).orElseThrow(() -> new RuntimeException("Appointment not found"));
             if (!existingAppointment.getPatient().getId().equals(patientId)) {
                 return "Unauthorized: Patient ID does not match";
             }
             appointmentRepository.delete(existingAppointment);
-            return "Appointment canceled successfully";
+            long doctorId = existingAppointment.getDoctor().getId();
+            LocalDateTime time = existingAppointment.getAppointmentTime();
+            doctorStats.canceled(doctorId, time, existingAppointment.getStatus());
+            TransactionHooks.afterCommit(() -> availabilityEngine.markFree(doctorId, time));
+            publish(AppointmentEvent.canceled(doctorId, appointmentId, time));
+            return CANCELED_MESSAGE;
         } catch (Exception e) {
+            TransactionHooks.setRollbackOnly();
             return "Error canceling appointment: " + e.getMessage();
         }
     }
@@ -114,17 +334,7 @@ public class AppointmentService {
         }
     }
     @Transactional
-    public List<Appointment> getAppointmentsByDoctorsTokenAndDate(String token, LocalDate date, String patientName) {
-            String email = tokenService.extractEmail(token);
-
-            if (email == null) {
-                throw new RuntimeException("Invalid token");
-            }
-            Doctor doctor = doctorRepository.findByEmail(email);
-            if (doctor == null) {
-                throw new RuntimeException("Doctor not found");
-            }
-            Long doctorId = doctor.getId();
+    public List<Appointment> getAppointmentsByDoctorIdAndDate(Long doctorId, LocalDate date, String patientName) {
             if (patientName != null && !patientName.isEmpty() && !patientName.equals("null")) {
                 return appointmentRepository.findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(doctorId, patientName, date.atStartOfDay(), date.atTime(23, 59, 59));
             } else {
@@ -132,6 +342,26 @@ public class AppointmentService {
             }
     }
 
+    // 7a. **Get Doctor Schedule Method**:
+//    - Same selection as `getAppointmentsByDoctorIdAndDate`, but returns `AppointmentDTO`s projected by the query itself,
+//      ordered by time, so no entities are loaded for the read-only schedule view.
+//    - The day comes from the `ScheduleCache` (one query per doctor and day until it changes); the patient name filter,
+//      a case-insensitive "contains" like the query's LIKE, is applied to the cached rows.
+    public List<AppointmentDTO> getScheduleByDoctorIdAndDate(Long doctorId, LocalDate date, String patientName) {
+        List<AppointmentDTO> day = scheduleCache.getDay(doctorId, date);
+        if (patientName == null || patientName.isEmpty() || patientName.equals("null")) {
+            return day;
+        }
+        String name = patientName.toLowerCase();
+        List<AppointmentDTO> matching = new ArrayList<>();
+        for (AppointmentDTO appointment : day) {
+            if (appointment.getPatientName() != null && appointment.getPatientName().toLowerCase().contains(name)) {
+                matching.add(appointment);
+            }
+        }
+        return matching;
+    }
+
         @Transactional
     public List<Appointment> getAppointmentsByDoctorsEmailAndDate(String email, LocalDate date, String patientName) {
             Doctor doctor = doctorRepository.findByEmail(email);
@@ -149,16 +379,108 @@ public class AppointmentService {
 //    - This method updates the status of an appointment by changing its value in the database.
 //    - It should be annotated with `@Transactional` to ensure the operation is executed in a single transaction.
 //    - Instruction: Add `@Transactional` before this method to ensure atomicity when updating appointment status.
+//    - A single bulk `UPDATE` by id: the appointment is not loaded, only its doctor, time and status are read (and locked)
+//      for the event and the doctor's rollup.
     @Transactional
     public String changeStatus(Long appointmentId, int newStatus) {
         try {
-            Appointment existingAppointment = appointmentRepository.findById(appointmentId).orElseThrow(() -> new RuntimeException("Appointment not found"));
-            existingAppointment.setStatus(newStatus);
-            appointmentRepository.save(existingAppointment);
+            AppointmentSlot slot = appointmentRepository.findSlotByIdForUpdate(appointmentId);
+            if (slot == null || appointmentRepository.updateStatus(newStatus, appointmentId) == 0) {
+                return "Error updating appointment status: Appointment not found";
+            }
+            doctorStats.statusChanged(slot.getDoctorId(), slot.getAppointmentTime(), slot.getStatus(), newStatus);
+            publish(AppointmentEvent.statusChanged(slot.getDoctorId(), List.of(appointmentId), slot.getAppointmentTime(), newStatus));
             return "Appointment status updated successfully";
         } catch (Exception e) {
+            TransactionHooks.setRollbackOnly();
             return "Error updating appointment status: " + e.getMessage();
         }
     }
 
+    // 8b. **Change Status Of Many Appointments**:
+//    - Lets a doctor set one status (e.g. completed or no-show) on many of their appointments in a single transaction.
+//    - Ids are deduplicated and updated with bulk `UPDATE ... WHERE id IN (...)` statements of `MAX_STATUS_CHUNK` ids each;
+//      appointments of other doctors or unknown ids are skipped. Returns the number of appointments updated.
+//    - Each chunk's previous statuses and times are read with a locking query first, for the doctor's rollup.
+//    - Throws `IllegalArgumentException` for an unknown status, no ids or more than `MAX_BATCH_SIZE` ids.
+    static final int MAX_STATUS_CHUNK = 1000;
+
+    @Transactional
+    public int changeStatuses(Long doctorId, List<Long> appointmentIds, int newStatus) {
+        if (newStatus < Appointment.SCHEDULED || newStatus > Appointment.NO_SHOW) {
+            throw new IllegalArgumentException("Unknown appointment status " + newStatus);
+        }
+        if (appointmentIds == null || appointmentIds.isEmpty()) {
+            throw new IllegalArgumentException("No appointments given");
+        }
+        if (appointmentIds.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " appointments per batch");
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(appointmentIds));
+        ids.remove(null);
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += MAX_STATUS_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_STATUS_CHUNK));
+            List<AppointmentSlot> slots = appointmentRepository.findSlotsForUpdateByDoctorId(chunk, doctorId);
+            if (slots.isEmpty()) {
+                continue;
+            }
+            updated += appointmentRepository.updateStatusForDoctor(newStatus, chunk, doctorId);
+            doctorStats.statusChanged(slots, newStatus);
+        }
+        if (updated > 0) {
+            // one event for the whole batch, which may span any number of days, so it concerns all of the doctor's days
+            publish(AppointmentEvent.statusChanged(doctorId, ids, null, newStatus));
+        }
+        return updated;
+    }
+
+    // 9. **Slot Hold Methods**:
+//    - `holdSlot` keeps a slot for the patient for `slot-holds.ttl-seconds` while they complete the booking (see `SlotHoldManager`).
+//    - Returns null if the slot is booked or held by someone else; throws `IllegalArgumentException` for an unknown doctor or a past time
+//      and `IllegalStateException` when the patient holds too many slots already.
+    public SlotHoldManager.Hold holdSlot(Long doctorId, LocalDateTime time, Long patientId) {
+        if (doctorId == null || time == null || !time.isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("A doctor and a future appointment time are required");
+        }
+        if (!doctorRepository.existsById(doctorId)) {
+            throw new IllegalArgumentException("Doctor not found");
+        }
+        return slotHolds.hold(doctorId, time, patientId);
+    }
+
+    public boolean releaseHold(Long doctorId, LocalDateTime time, Long patientId) {
+        return slotHolds.release(doctorId, time, patientId);
+    }
+
+    // Reserves the slot unless it is booked, being booked, or held by another patient. Must be released like tryReserve.
+    private boolean claim(long doctorId, LocalDateTime time, Long patientId) {
+        if (!availabilityEngine.tryReserve(doctorId, time)) {
+            return false;
+        }
+        if (slotHolds.isHeldByOther(doctorId, time, patientId)) {
+            availabilityEngine.release(doctorId, time);
+            return false;
+        }
+        return true;
+    }
+
+    // Listeners only hear about changes that were committed; a rolled back change publishes nothing.
+    private void publish(AppointmentEvent event) {
+        TransactionHooks.afterCommit(() -> events.publishEvent(event));
+    }
+
+    private static Long patientIdOf(Appointment appointment) {
+        return appointment.getPatient() != null ? appointment.getPatient().getId() : null;
+    }
+
+    // The appointment table has no unique key besides (doctor_id, appointment_time), so any unique violation is a taken slot.
+    private static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
+            }
+        }
+        return false;
+    }
 }
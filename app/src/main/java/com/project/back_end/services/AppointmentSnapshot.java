@@ -0,0 +1,316 @@
+package com.project.back_end.services;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Immutable, column-wise copy of the appointments in a time window, for the admin analytics.
+ * <p>
+ * One primitive array per column: the doctor (an index into the doctor dictionary, which holds the doctor ids, their
+ * specialty and number of daily slots), the start time in minutes since 1970-01-01T00:00 (local time, like
+ * {@code appointment_time}), the status, and the doctor's specialty as a code into the specialty dictionary. That is
+ * 11 bytes per appointment, and an aggregation is one branch-light pass over contiguous arrays, split over a fork-join
+ * pool in ranges of {@value #SPLIT_ROWS} rows whose partial counts are added up as the tasks join.
+ */
+public final class AppointmentSnapshot {
+
+    public static final int STATUSES = 4;
+    public static final int HOURS = 24;
+    public static final int WEEKDAYS = 7;
+
+    // per specialty: appointments by status, by hour of day, by day of week (Monday first)
+    static final int STRIDE = STATUSES + HOURS + WEEKDAYS;
+    static final int SPLIT_ROWS = 1 << 16;
+
+    private final long[] doctorIds;
+    private final short[] doctorSpecialties;
+    private final int[] doctorSlotsPerDay;
+    private final String[] specialties;
+
+    private final int size;
+    private final int[] doctors;
+    private final int[] minutes;
+    private final byte[] statuses;
+    private final short[] rowSpecialties;
+
+    private AppointmentSnapshot(Builder builder) {
+        this.doctorIds = Arrays.copyOf(builder.doctorIds, builder.doctorCount);
+        this.doctorSpecialties = Arrays.copyOf(builder.doctorSpecialties, builder.doctorCount);
+        this.doctorSlotsPerDay = Arrays.copyOf(builder.doctorSlotsPerDay, builder.doctorCount);
+        this.specialties = new String[builder.specialtyCodes.size()];
+        for (Map.Entry<String, Short> entry : builder.specialtyCodes.entrySet()) {
+            specialties[entry.getValue()] = entry.getKey();
+        }
+        this.size = builder.size;
+        this.doctors = Arrays.copyOf(builder.doctors, size);
+        this.minutes = Arrays.copyOf(builder.minutes, size);
+        this.statuses = Arrays.copyOf(builder.statuses, size);
+        this.rowSpecialties = Arrays.copyOf(builder.rowSpecialties, size);
+    }
+
+    public static Builder builder(int expectedRows) {
+        return new Builder(expectedRows);
+    }
+
+    public static int epochMinute(LocalDateTime time) {
+        return (int) Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getDoctorCount() {
+        return doctorIds.length;
+    }
+
+    public long getDoctorId(int doctor) {
+        return doctorIds[doctor];
+    }
+
+    public int getDoctorSpecialty(int doctor) {
+        return doctorSpecialties[doctor];
+    }
+
+    public int getDoctorSlotsPerDay(int doctor) {
+        return doctorSlotsPerDay[doctor];
+    }
+
+    public String[] getSpecialties() {
+        return specialties.clone();
+    }
+
+    /**
+     * Number of doctors by specialty code.
+     */
+    public int[] countDoctorsBySpecialty() {
+        int[] counts = new int[specialties.length];
+        for (short specialty : doctorSpecialties) {
+            counts[specialty]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Daily slots of all doctors together, by specialty code.
+     */
+    public long[] countSlotsPerDayBySpecialty() {
+        long[] slots = new long[specialties.length];
+        for (int i = 0; i < doctorSpecialties.length; i++) {
+            slots[doctorSpecialties[i]] += doctorSlotsPerDay[i];
+        }
+        return slots;
+    }
+
+    /**
+     * Counts the appointments starting in [fromMinute, toMinute) by specialty and by doctor, in parallel on {@code pool}.
+     */
+    public Counts count(int fromMinute, int toMinute, ForkJoinPool pool) {
+        return new Counts(specialties.length, pool.invoke(new CountTask(fromMinute, toMinute, 0, size)));
+    }
+
+    /**
+     * Same as {@link #count}, on the calling thread only.
+     */
+    public Counts countSequentially(int fromMinute, int toMinute) {
+        long[] counts = newCounts();
+        countRange(fromMinute, toMinute, 0, size, counts);
+        return new Counts(specialties.length, counts);
+    }
+
+    // the specialty counts, then one appointment count per doctor
+    private long[] newCounts() {
+        return new long[specialties.length * STRIDE + doctorIds.length];
+    }
+
+    private void countRange(int fromMinute, int toMinute, int from, int to, long[] counts) {
+        int doctorBase = specialties.length * STRIDE;
+        int[] doctors = this.doctors;
+        int[] minutes = this.minutes;
+        byte[] statuses = this.statuses;
+        short[] rowSpecialties = this.rowSpecialties;
+        for (int i = from; i < to; i++) {
+            int minute = minutes[i];
+            if (minute < fromMinute || minute >= toMinute) {
+                continue;
+            }
+            int base = rowSpecialties[i] * STRIDE;
+            counts[base + statuses[i]]++;
+            counts[base + STATUSES + Math.floorMod(Math.floorDiv(minute, 60), HOURS)]++;
+            // 1970-01-01 was a Thursday
+            counts[base + STATUSES + HOURS + Math.floorMod(Math.floorDiv(minute, 24 * 60) + 3, WEEKDAYS)]++;
+            counts[doctorBase + doctors[i]]++;
+        }
+    }
+
+    private final class CountTask extends RecursiveTask<long[]> {
+        private final int fromMinute;
+        private final int toMinute;
+        private final int from;
+        private final int to;
+
+        CountTask(int fromMinute, int toMinute, int from, int to) {
+            this.fromMinute = fromMinute;
+            this.toMinute = toMinute;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= SPLIT_ROWS) {
+                long[] counts = newCounts();
+                countRange(fromMinute, toMinute, from, to, counts);
+                return counts;
+            }
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(fromMinute, toMinute, from, middle);
+            left.fork();
+            long[] counts = new CountTask(fromMinute, toMinute, middle, to).compute();
+            long[] other = left.join();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other[i];
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Appointment counts by specialty code and by doctor index.
+     */
+    public static final class Counts {
+        private final int specialties;
+        private final long[] counts;
+
+        Counts(int specialties, long[] counts) {
+            this.specialties = specialties;
+            this.counts = counts;
+        }
+
+        public long get(int specialty, int status) {
+            return counts[specialty * STRIDE + status];
+        }
+
+        public long total(int specialty) {
+            long total = 0;
+            for (int status = 0; status < STATUSES; status++) {
+                total += get(specialty, status);
+            }
+            return total;
+        }
+
+        public long[] byHour(int specialty) {
+            int from = specialty * STRIDE + STATUSES;
+            return Arrays.copyOfRange(counts, from, from + HOURS);
+        }
+
+        public long[] byWeekday(int specialty) {
+            int from = specialty * STRIDE + STATUSES + HOURS;
+            return Arrays.copyOfRange(counts, from, from + WEEKDAYS);
+        }
+
+        public long byDoctor(int doctor) {
+            return counts[specialties * STRIDE + doctor];
+        }
+
+        public int getSpecialtyCount() {
+            return specialties;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Counts other && Arrays.equals(counts, other.counts);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(counts);
+        }
+    }
+
+    /**
+     * Collects doctors first, then their appointments; appointments of doctors it does not know are skipped.
+     */
+    public static final class Builder {
+        private final Map<Long, Integer> doctorIndexes = new HashMap<>();
+        private final Map<String, Short> specialtyCodes = new HashMap<>();
+        private long[] doctorIds = new long[64];
+        private short[] doctorSpecialties = new short[64];
+        private int[] doctorSlotsPerDay = new int[64];
+        private int doctorCount;
+
+        private int size;
+        private int[] doctors;
+        private int[] minutes;
+        private byte[] statuses;
+        private short[] rowSpecialties;
+        private long skipped;
+
+        private Builder(int expectedRows) {
+            int capacity = Math.max(1024, expectedRows);
+            doctors = new int[capacity];
+            minutes = new int[capacity];
+            statuses = new byte[capacity];
+            rowSpecialties = new short[capacity];
+        }
+
+        public Builder addDoctor(long doctorId, String specialty, int slotsPerDay) {
+            if (doctorIndexes.containsKey(doctorId)) {
+                return this;
+            }
+            String name = specialty != null ? specialty.trim() : "";
+            if (!specialtyCodes.containsKey(name) && specialtyCodes.size() == Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many specialties");
+            }
+            short code = specialtyCodes.computeIfAbsent(name, key -> (short) specialtyCodes.size());
+            if (doctorCount == doctorIds.length) {
+                doctorIds = Arrays.copyOf(doctorIds, doctorCount * 2);
+                doctorSpecialties = Arrays.copyOf(doctorSpecialties, doctorCount * 2);
+                doctorSlotsPerDay = Arrays.copyOf(doctorSlotsPerDay, doctorCount * 2);
+            }
+            doctorIds[doctorCount] = doctorId;
+            doctorSpecialties[doctorCount] = code;
+            doctorSlotsPerDay[doctorCount] = Math.max(0, slotsPerDay);
+            doctorIndexes.put(doctorId, doctorCount++);
+            return this;
+        }
+
+        public Builder add(long doctorId, LocalDateTime time, int status) {
+            return add(doctorId, epochMinute(time), status);
+        }
+
+        public Builder add(long doctorId, int epochMinute, int status) {
+            Integer doctor = doctorIndexes.get(doctorId);
+            if (doctor == null || status < 0 || status >= STATUSES) {
+                skipped++;
+                return this;
+            }
+            if (size == minutes.length) {
+                int capacity = size + (size >> 1);
+                doctors = Arrays.copyOf(doctors, capacity);
+                minutes = Arrays.copyOf(minutes, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+                rowSpecialties = Arrays.copyOf(rowSpecialties, capacity);
+            }
+            doctors[size] = doctor;
+            minutes[size] = epochMinute;
+            statuses[size] = (byte) status;
+            rowSpecialties[size] = doctorSpecialties[doctor];
+            size++;
+            return this;
+        }
+
+        public long getSkipped() {
+            return skipped;
+        }
+
+        public AppointmentSnapshot build() {
+            return new AppointmentSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.project.back_end.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.DTO.AppointmentSlot;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.repo.AppointmentRepository;
+
+/**
+ * End-of-day sweep that closes appointments which are over but still marked scheduled.
+ * <p>
+ * Runs on {@code appointments.sweeper.cron} and sets every scheduled appointment whose hour ended before the run to
+ * {@code appointments.sweeper.past-status}: completed (1, the default) or no-show (3) for practices where doctors
+ * confirm visits themselves. Appointments that already moved on (prescribed, or marked by the doctor through the
+ * batch status endpoint) are not touched.
+ * <p>
+ * The work is done in chunks of {@code appointments.sweeper.chunk-size}: one keyset query for the next ids and one
+ * bulk {@code UPDATE} for them, each committed on its own, so no chunk holds row locks for long and an interrupted
+ * sweep simply continues at the next run. Progress is published through {@link #getStats()}.
+ * <p>
+ * A no-show no longer counts as a patient seen, so in no-show mode each chunk also reads (and locks) the times of its
+ * appointments and adjusts the doctors' monthly rollups ({@link DoctorStatsRollup}) in the same transaction.
+ */
+@Component
+public class AppointmentStatusSweeper {
+
+    private static final Logger logger = Logger.getLogger(AppointmentStatusSweeper.class.getName());
+
+    private final AppointmentRepository appointmentRepository;
+    private final ScheduleCache scheduleCache;
+    private final DoctorStatsRollup doctorStats;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int pastStatus;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalUpdated = new AtomicLong();
+    private final AtomicLong currentUpdated = new AtomicLong();
+    private final AtomicLong currentChunks = new AtomicLong();
+    private volatile LocalDateTime lastStartedAt;
+    private volatile LocalDateTime lastFinishedAt;
+    private volatile long lastUpdated;
+    private volatile long lastDurationMillis;
+    private volatile String lastError;
+
+    public AppointmentStatusSweeper(AppointmentRepository appointmentRepository,
+                                    ScheduleCache scheduleCache,
+                                    DoctorStatsRollup doctorStats,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${appointments.sweeper.chunk-size:1000}") int chunkSize,
+                                    @Value("${appointments.sweeper.past-status:1}") int pastStatus) {
+        if (pastStatus != Appointment.COMPLETED && pastStatus != Appointment.NO_SHOW) {
+            throw new IllegalArgumentException("appointments.sweeper.past-status must be 1 (completed) or 3 (no-show)");
+        }
+        this.appointmentRepository = appointmentRepository;
+        this.scheduleCache = scheduleCache;
+        this.doctorStats = doctorStats;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pastStatus = pastStatus;
+    }
+
+    @Scheduled(cron = "${appointments.sweeper.cron:0 5 0 * * *}")
+    public void sweepPastAppointments() {
+        // an appointment lasts an hour (Appointment.getEndTime), so only those that started an hour ago are over
+        sweep(LocalDateTime.now().minusHours(1));
+    }
+
+    /**
+     * Marks scheduled appointments that started before {@code before}. Returns the number of appointments updated,
+     * or -1 if a sweep is already running.
+     */
+    public long sweep(LocalDateTime before) {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        long started = System.nanoTime();
+        lastStartedAt = LocalDateTime.now();
+        currentUpdated.set(0);
+        currentChunks.set(0);
+        runs.incrementAndGet();
+        try {
+            long afterId = 0;
+            while (true) {
+                List<Long> ids = appointmentRepository.findIdsByStatusAndAppointmentTimeBefore(
+                        Appointment.SCHEDULED, before, afterId, Limit.of(chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                int updated = pastStatus == Appointment.NO_SHOW
+                        ? transactionTemplate.execute(status -> markNoShows(ids))
+                        : appointmentRepository.updateStatusIfUnchanged(pastStatus, ids, Appointment.SCHEDULED);
+                currentUpdated.addAndGet(updated);
+                totalUpdated.addAndGet(updated);
+                currentChunks.incrementAndGet();
+                afterId = ids.get(ids.size() - 1);
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+            }
+            lastError = null;
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            logger.log(Level.WARNING, "Status sweep stopped after " + currentUpdated.get() + " appointments", e);
+        } finally {
+            if (currentUpdated.get() > 0) {
+                // the sweep only touches appointments that started before the cutoff
+                scheduleCache.invalidateUntil(before.toLocalDate());
+            }
+            lastUpdated = currentUpdated.get();
+            lastDurationMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+            lastFinishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+        logger.info("Status sweep marked " + lastUpdated + " past appointments in " + currentChunks.get()
+                + " chunks (" + lastDurationMillis + " ms)");
+        return lastUpdated;
+    }
+
+    private int markNoShows(List<Long> ids) {
+        List<AppointmentSlot> slots = appointmentRepository.findSlotsForUpdateByStatus(ids, Appointment.SCHEDULED);
+        if (slots.isEmpty()) {
+            return 0;
+        }
+        int updated = appointmentRepository.updateStatusIfUnchanged(pastStatus, ids, Appointment.SCHEDULED);
+        doctorStats.statusChanged(slots, pastStatus);
+        return updated;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("running", running.get());
+        stats.put("chunkSize", chunkSize);
+        stats.put("pastStatus", pastStatus);
+        stats.put("runs", runs.get());
+        stats.put("totalUpdated", totalUpdated.get());
+        // while a sweep runs these are its progress so far, afterwards they describe the last run
+        stats.put("updated", currentUpdated.get());
+        stats.put("chunks", currentChunks.get());
+        stats.put("lastStartedAt", lastStartedAt);
+        stats.put("lastFinishedAt", lastFinishedAt);
+        stats.put("lastUpdated", lastUpdated);
+        stats.put("lastDurationMillis", lastDurationMillis);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+}
@@ -0,0 +1,274 @@
+package com.project.back_end.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSlots;
+import com.project.back_end.repo.AppointmentRepository;
+
+/**
+ * In-memory availability of every doctor, one {@link SlotBitmap} per doctor per day.
+ * <p>
+ * A day is loaded lazily from the appointment table the first time it is asked for, with a single query that only
+ * selects appointment times. After that, bookings, updates and cancellations flip bits in place
+ * ({@link #markBooked}, {@link #markFree}), so availability checks are a map lookup plus bit tests.
+ * A load that races with a write is discarded and simply reloaded on the next lookup.
+ * <p>
+ * Bookings in progress claim their slot with {@link #tryReserve}, an atomic add to a concurrent set keyed by
+ * (doctor, quarter hour). Only requests for the very same slot contend; the claim is dropped with {@link #release}
+ * once the booking transaction has completed (after {@link #markBooked} on commit).
+ */
+@Component
+public class AvailabilityEngine {
+
+    private final AppointmentRepository appointmentRepository;
+    private final int maxCachedDays;
+
+    private final ConcurrentHashMap<Long, SlotBitmap> days = new ConcurrentHashMap<>();
+    // bumped by every write so a concurrent lazy load can tell that it may have missed one
+    private final AtomicLong modifications = new AtomicLong();
+
+    // slots claimed by bookings whose transaction has not completed yet
+    private final Set<Long> reservations = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    public AvailabilityEngine(AppointmentRepository appointmentRepository,
+                              @Value("${availability.max-cached-days:200000}") int maxCachedDays) {
+        this.appointmentRepository = appointmentRepository;
+        this.maxCachedDays = maxCachedDays;
+    }
+
+    static long key(long doctorId, long epochDay) {
+        return (doctorId << 24) | (epochDay & 0xFFFFFF);
+    }
+
+    static long slotKey(long doctorId, LocalDateTime time) {
+        return (doctorId << 32) | (time.toLocalDate().toEpochDay() * DoctorSlots.QUARTERS_PER_DAY + quarterOf(time));
+    }
+
+    /**
+     * The bitmap of booked quarter hours for a doctor on a day, loading it if needed.
+     */
+    public SlotBitmap day(long doctorId, LocalDate date) {
+        long key = key(doctorId, date.toEpochDay());
+        SlotBitmap bitmap = days.get(key);
+        if (bitmap != null) {
+            hits.increment();
+            return bitmap;
+        }
+        return load(key, doctorId, date);
+    }
+
+    /**
+     * Makes sure the bitmaps of {@code days} consecutive days starting at {@code from} are loaded, reading all missing
+     * days with one range query instead of one query per day.
+     */
+    public void loadRange(long doctorId, LocalDate from, int days) {
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (int i = 0; i < days; i++) {
+            LocalDate date = from.plusDays(i);
+            if (!this.days.containsKey(key(doctorId, date.toEpochDay()))) {
+                if (firstMissing == null) {
+                    firstMissing = date;
+                }
+                lastMissing = date;
+            }
+        }
+        if (firstMissing == null) {
+            hits.add(days);
+            return;
+        }
+
+        loads.increment();
+        long version = modifications.get();
+        Map<Long, SlotBitmap> loaded = new HashMap<>();
+        for (LocalDate date = firstMissing; !date.isAfter(lastMissing); date = date.plusDays(1)) {
+            loaded.put(key(doctorId, date.toEpochDay()), new SlotBitmap());
+        }
+        for (LocalDateTime time : appointmentRepository.findAppointmentTimesByDoctorIdBetween(
+                doctorId, firstMissing.atStartOfDay(), lastMissing.plusDays(1).atStartOfDay())) {
+            loaded.get(key(doctorId, time.toLocalDate().toEpochDay())).set(quarterOf(time));
+        }
+        if (this.days.size() + loaded.size() >= maxCachedDays) {
+            trim();
+        }
+        for (Map.Entry<Long, SlotBitmap> entry : loaded.entrySet()) {
+            this.days.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+        if (modifications.get() != version) {
+            for (Map.Entry<Long, SlotBitmap> entry : loaded.entrySet()) {
+                this.days.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    public boolean isBooked(long doctorId, LocalDateTime time) {
+        return day(doctorId, time.toLocalDate()).isSet(quarterOf(time));
+    }
+
+    /**
+     * Claims a slot for a booking in progress. Returns {@code false} if the slot is already booked or another booking
+     * for it is in flight. A successful claim must be {@link #release released} when the booking completes.
+     */
+    public boolean tryReserve(long doctorId, LocalDateTime time) {
+        long key = slotKey(doctorId, time);
+        if (!reservations.add(key)) {
+            conflicts.increment();
+            return false;
+        }
+        boolean booked;
+        try {
+            booked = isBooked(doctorId, time);
+        } catch (RuntimeException e) {
+            reservations.remove(key);
+            throw e;
+        }
+        if (booked) {
+            reservations.remove(key);
+            conflicts.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public void release(long doctorId, LocalDateTime time) {
+        reservations.remove(slotKey(doctorId, time));
+    }
+
+    /**
+     * Counts a booking that was turned down by the database rather than by {@link #tryReserve}.
+     */
+    public void recordConflict() {
+        conflicts.increment();
+    }
+
+    /**
+     * The doctor's slot labels (as stored in {@code availableTimes}) that are not booked on the given day.
+     */
+    public List<String> availableSlots(Doctor doctor, LocalDate date) {
+        DoctorSlots slots = doctor.getSlots();
+        List<String> available = new ArrayList<>(slots.size());
+        if (slots.isEmpty()) {
+            return available;
+        }
+        SlotBitmap bitmap = day(doctor.getId(), date);
+        for (int i = 0; i < slots.size(); i++) {
+            if (!bitmap.isSet(SlotBitmap.quarterOf(slots.startMinute(i)))) {
+                available.add(slots.label(i));
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Records a committed booking. Days that are not loaded yet are left alone; they will read it from the table.
+     */
+    public void markBooked(long doctorId, LocalDateTime time) {
+        modifications.incrementAndGet();
+        SlotBitmap bitmap = days.get(key(doctorId, time.toLocalDate().toEpochDay()));
+        if (bitmap != null) {
+            bitmap.set(quarterOf(time));
+        }
+    }
+
+    /**
+     * Records a committed cancellation or move away from a slot.
+     */
+    public void markFree(long doctorId, LocalDateTime time) {
+        modifications.incrementAndGet();
+        SlotBitmap bitmap = days.get(key(doctorId, time.toLocalDate().toEpochDay()));
+        if (bitmap != null) {
+            bitmap.clear(quarterOf(time));
+        }
+    }
+
+    public void evictDoctor(long doctorId) {
+        modifications.incrementAndGet();
+        days.keySet().removeIf(key -> (key >>> 24) == doctorId);
+    }
+
+    public void evictAll() {
+        modifications.incrementAndGet();
+        days.clear();
+    }
+
+    /**
+     * Cache and occupancy figures. Occupancy is booked offered slots over offered slots, across the loaded days of
+     * the doctors known to the directory.
+     */
+    public Map<String, Object> getStats(DoctorDirectory directory) {
+        long offered = 0;
+        long booked = 0;
+        long bookedQuarters = 0;
+        for (Map.Entry<Long, SlotBitmap> entry : days.entrySet()) {
+            SlotBitmap bitmap = entry.getValue();
+            bookedQuarters += bitmap.cardinality();
+            Doctor doctor = directory.get(entry.getKey() >>> 24);
+            if (doctor != null) {
+                DoctorSlots slots = doctor.getSlots();
+                offered += slots.size();
+                booked += bitmap.bookedAmong(slots);
+            }
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("loadedDays", days.size());
+        stats.put("hits", hits.sum());
+        stats.put("loads", loads.sum());
+        stats.put("reservationsInFlight", reservations.size());
+        stats.put("conflicts", conflicts.sum());
+        stats.put("bookedSlots", bookedQuarters);
+        stats.put("offeredSlots", offered);
+        stats.put("occupancy", offered == 0 ? 0.0 : (double) booked / offered);
+        return stats;
+    }
+
+    private SlotBitmap load(long key, long doctorId, LocalDate date) {
+        loads.increment();
+        long version = modifications.get();
+        SlotBitmap bitmap = new SlotBitmap();
+        for (LocalDateTime time : appointmentRepository.findAppointmentTimesByDoctorIdBetween(
+                doctorId, date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+            bitmap.set(quarterOf(time));
+        }
+        if (days.size() >= maxCachedDays) {
+            trim();
+        }
+        SlotBitmap existing = days.putIfAbsent(key, bitmap);
+        if (existing != null) {
+            return existing;
+        }
+        if (modifications.get() != version) {
+            // a write committed while we were reading; keep this answer for the caller but reload next time
+            days.remove(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    private void trim() {
+        long today = LocalDate.now().toEpochDay() & 0xFFFFFF;
+        days.keySet().removeIf(key -> (key & 0xFFFFFF) < today);
+        if (days.size() >= maxCachedDays) {
+            days.clear();
+        }
+    }
+
+    private static int quarterOf(LocalDateTime time) {
+        return SlotBitmap.quarterOf(time.getHour() * 60 + time.getMinute());
+    }
+}
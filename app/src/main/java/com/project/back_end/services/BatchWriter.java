@@ -0,0 +1,52 @@
+package com.project.back_end.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Bulk inserts through JPA that actually go out as JDBC batches.
+ * <p>
+ * Entities are persisted in chunks of {@code hibernate.jdbc.batch_size}; after each chunk the persistence context is
+ * flushed (one batched {@code INSERT} per table) and cleared, so it does not grow with the size of the import.
+ * Ids come from pooled sequences, so persisting does not need a round trip per row either.
+ * <p>
+ * It talks to the {@link EntityManager} directly, so it is a {@code @Repository}: Hibernate exceptions from a flush are
+ * translated like those of the Spring Data repositories, e.g. a taken slot surfaces as a
+ * {@code DataIntegrityViolationException}.
+ */
+@Repository
+public class BatchWriter {
+
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public BatchWriter(EntityManager entityManager,
+                       @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Persists all entities in the current transaction. Clears the persistence context as it goes, so entities the
+     * caller loaded earlier in the transaction are detached afterwards.
+     */
+    public <T> void persistAll(List<T> entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            entityManager.persist(entities.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+}
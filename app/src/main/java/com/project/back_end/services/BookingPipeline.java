@@ -0,0 +1,199 @@
+package com.project.back_end.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.back_end.DTO.BookingTicket;
+import com.project.back_end.models.Appointment;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional group-commit mode for bookings ({@code booking.pipeline.enabled=true}).
+ * <p>
+ * Requests are put on a bounded queue and answered with a {@link BookingTicket}. A single writer thread drains
+ * whatever has queued up (at most {@code booking.pipeline.max-batch}) and books it with
+ * {@link AppointmentService#bookBatch}: one transaction, one batched {@code INSERT} and one commit per batch instead of
+ * per booking. While a batch commits, the next one fills up, so batches grow with the load by themselves.
+ * Two requests for the same slot in one batch are resolved by the same slot reservation single bookings use: the
+ * first one wins. If a batch fails as a whole, its bookings are retried one transaction each.
+ */
+@Component
+public class BookingPipeline {
+
+    private static final Logger logger = Logger.getLogger(BookingPipeline.class.getName());
+
+    private final AppointmentService appointmentService;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final BlockingQueue<Request> queue;
+    private final Cache<String, BookingTicket> tickets;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public BookingPipeline(AppointmentService appointmentService,
+                           @Value("${booking.pipeline.enabled:false}") boolean enabled,
+                           @Value("${booking.pipeline.queue-capacity:10000}") int queueCapacity,
+                           @Value("${booking.pipeline.max-batch:200}") int maxBatch,
+                           @Value("${booking.pipeline.ticket-ttl-seconds:600}") long ticketTtlSeconds) {
+        this.appointmentService = appointmentService;
+        this.enabled = enabled;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.tickets = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ticketTtlSeconds))
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::run, "booking-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+            writer = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a booking. Returns {@code null} if the queue is full.
+     */
+    public BookingTicket submit(Appointment appointment) {
+        BookingTicket ticket = new BookingTicket(UUID.randomUUID().toString(), appointment.getPatient().getId(),
+                appointment.getDoctor().getId(), appointment.getAppointmentTime());
+        tickets.put(ticket.getId(), ticket);
+        if (!queue.offer(new Request(appointment, ticket))) {
+            tickets.invalidate(ticket.getId());
+            rejected.increment();
+            return null;
+        }
+        submitted.increment();
+        return ticket;
+    }
+
+    /**
+     * A ticket issued in the last {@code booking.pipeline.ticket-ttl-seconds}, or {@code null}.
+     */
+    public BookingTicket getTicket(String ticketId) {
+        return tickets.getIfPresent(ticketId);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long batchCount = batches.sum();
+        stats.put("enabled", enabled);
+        stats.put("queued", queue.size());
+        stats.put("submitted", submitted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("batches", batchCount);
+        stats.put("averageBatchSize", batchCount == 0 ? 0.0 : (double) written.sum() / batchCount);
+        stats.put("fallbacks", fallbacks.sum());
+        return stats;
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Booking batch failed", e);
+                for (Request request : batch) {
+                    if (!request.ticket.isDone()) {
+                        request.ticket.resolve(BookingTicket.FAILED, null);
+                    }
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Request> batch) {
+        List<Appointment> appointments = new ArrayList<>(batch.size());
+        for (Request request : batch) {
+            appointments.add(request.appointment);
+        }
+        int[] results;
+        try {
+            results = appointmentService.bookBatch(appointments);
+        } catch (RuntimeException e) {
+            // typically a slot booked behind the engine's back; book one by one so only that request fails
+            fallbacks.increment();
+            results = new int[appointments.size()];
+            for (int i = 0; i < appointments.size(); i++) {
+                appointments.get(i).setId(0);
+                results[i] = appointmentService.bookAppointment(appointments.get(i));
+            }
+        }
+        batches.increment();
+        written.add(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            BookingTicket ticket = batch.get(i).ticket;
+            if (results[i] == 1) {
+                ticket.resolve(BookingTicket.BOOKED, appointments.get(i).getId());
+            } else if (results[i] == AppointmentService.SLOT_TAKEN) {
+                ticket.resolve(BookingTicket.SLOT_TAKEN, null);
+            } else {
+                ticket.resolve(BookingTicket.FAILED, null);
+            }
+        }
+    }
+
+    private static final class Request {
+        private final Appointment appointment;
+        private final BookingTicket ticket;
+
+        private Request(Appointment appointment, BookingTicket ticket) {
+            this.appointment = appointment;
+            this.ticket = ticket;
+        }
+    }
+}
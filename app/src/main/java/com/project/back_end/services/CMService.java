@@ -1,6 +1,7 @@
 package com.project.back_end.services;
 
 import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AuthPrincipal;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Admin;
 import com.project.back_end.models.Patient;
@@ -47,6 +48,11 @@ public class CMService {
     public boolean validateToken(String token, String role){
         return tokenService.validateToken(token, role);
     }
+
+    // Like `validateToken`, but also says who the caller is; null when the token is not valid for the role.
+    public AuthPrincipal resolvePrincipal(String token, String role) {
+        return tokenService.resolvePrincipal(token, role);
+    }
 // 4. **validateAdmin Method**
 // This method validates the login credentials for an admin user.
 // - It first searches the admin repository using the provided username.
@@ -61,7 +67,7 @@ public class CMService {
         if (admin != null) {
 
             if (admin.getPassword().equals(login.getPassword())) {
-                String token = tokenService.generateToken(admin.getUsername());
+                String token = tokenService.generateToken(admin.getUsername(), "admin", admin.getId());
                 return ResponseEntity.ok(Map.of("token", token));
             } else {
                 return ResponseEntity.status(401).body(Map.of("error", "Invalid password"));
@@ -119,7 +125,7 @@ public ResponseEntity<?> filterDoctor(String name, String specialty, String time
         if (patient != null) {
 
             if (patient.getPassword().equals(login.getPassword())) {
-                String token = tokenService.generateToken(patient.getEmail());
+                String token = tokenService.generateToken(patient.getEmail(), "patient", patient.getId());
                 return ResponseEntity.ok(Map.of("token", token));
             } else {
                 return ResponseEntity.status(401).body(Map.of("error", "Invalid password"));
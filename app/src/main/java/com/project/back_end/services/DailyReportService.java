@@ -0,0 +1,176 @@
+package com.project.back_end.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+/**
+ * The daily appointment report (what {@code GetDailyAppointmentReportByDoctor} in {@code sql_scripts/StoredProcedure.sql}
+ * returns), written row by row as CSV or NDJSON.
+ * <p>
+ * The day is selected with the half-open range {@code appointment_time >= day AND appointment_time < day + 1}, which
+ * the {@code appointment_time} indexes of both {@code appointment} and {@code appointment_archive} can serve, instead of
+ * {@code DATE(appointment_time) = day}, which has to compute the date of every row. The result set is forward-only and
+ * read-only with a fetch size of {@code Integer.MIN_VALUE}, which makes MySQL Connector/J stream it one row at a time;
+ * each row is written to the output as soon as it is read, so memory use does not depend on the size of the clinic.
+ */
+@Service
+public class DailyReportService {
+
+    public static final String CSV = "csv";
+    public static final String NDJSON = "ndjson";
+
+    private static final String REPORT_SQL =
+            "SELECT d.name AS doctor_name, a.appointment_time, a.status, p.name AS patient_name, p.phone AS patient_phone " +
+            "FROM (" +
+            "  SELECT doctor_id, patient_id, appointment_time, status FROM appointment " +
+            "  WHERE appointment_time >= ? AND appointment_time < ? " +
+            "  UNION ALL " +
+            "  SELECT doctor_id, patient_id, appointment_time, status FROM appointment_archive " +
+            "  WHERE appointment_time >= ? AND appointment_time < ?" +
+            ") a " +
+            "JOIN doctor d ON d.id = a.doctor_id " +
+            "JOIN patient p ON p.id = a.patient_id " +
+            "ORDER BY d.name, a.appointment_time";
+
+    private static final String CSV_HEADER = "doctor_name,appointment_time,status,patient_name,patient_phone\n";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DailyReportService(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public static boolean isSupportedFormat(String format) {
+        return CSV.equals(format) || NDJSON.equals(format);
+    }
+
+    /**
+     * Writes the report for {@code date} to {@code out} in the given format ({@link #CSV} or {@link #NDJSON}) and
+     * returns the number of appointments written. The caller owns (and buffers) the writer.
+     */
+    public long writeReport(LocalDate date, String format, Writer out) throws IOException {
+        if (!isSupportedFormat(format)) {
+            throw new IllegalArgumentException("Format must be csv or ndjson");
+        }
+        LocalDateTime start = date.atStartOfDay();
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+        boolean csv = CSV.equals(format);
+        if (csv) {
+            out.write(CSV_HEADER);
+        }
+        long[] rows = {0};
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(REPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(Integer.MIN_VALUE);
+                statement.setObject(1, start);
+                statement.setObject(2, end);
+                statement.setObject(3, start);
+                statement.setObject(4, end);
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                String doctorName = rs.getString(1);
+                LocalDateTime time = rs.getObject(2, LocalDateTime.class);
+                int status = rs.getInt(3);
+                String patientName = rs.getString(4);
+                String patientPhone = rs.getString(5);
+                try {
+                    if (csv) {
+                        writeCsvRow(out, doctorName, time, status, patientName, patientPhone);
+                    } else {
+                        writeJsonRow(out, doctorName, time, status, patientName, patientPhone);
+                    }
+                } catch (IOException e) {
+                    // the client went away; stop reading rows
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rows[0];
+    }
+
+    private static void writeCsvRow(Writer out, String doctorName, LocalDateTime time, int status,
+                                    String patientName, String patientPhone) throws IOException {
+        writeCsvField(out, doctorName);
+        out.write(',');
+        out.write(time.toString());
+        out.write(',');
+        out.write(Integer.toString(status));
+        out.write(',');
+        writeCsvField(out, patientName);
+        out.write(',');
+        writeCsvField(out, patientPhone);
+        out.write('\n');
+    }
+
+    private static void writeCsvField(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        // names are user input: keep spreadsheets from reading them as formulas
+        String field = !value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            out.write(field);
+            return;
+        }
+        out.write('"');
+        out.write(field.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private static void writeJsonRow(Writer out, String doctorName, LocalDateTime time, int status,
+                                     String patientName, String patientPhone) throws IOException {
+        out.write("{\"doctorName\":");
+        writeJsonString(out, doctorName);
+        out.write(",\"appointmentTime\":\"");
+        out.write(time.toString());
+        out.write("\",\"status\":");
+        out.write(Integer.toString(status));
+        out.write(",\"patientName\":");
+        writeJsonString(out, patientName);
+        out.write(",\"patientPhone\":");
+        writeJsonString(out, patientPhone);
+        out.write("}\n");
+    }
+
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+}
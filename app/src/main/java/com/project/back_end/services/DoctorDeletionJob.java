@@ -0,0 +1,246 @@
+package com.project.back_end.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+import com.project.back_end.repo.DoctorMonthlyStatsRepository;
+import com.project.back_end.repo.DoctorRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Removes a doctor and their appointment history in the background.
+ * <p>
+ * The doctor is hidden from search, their tokens are revoked and their open dashboard feeds are closed right away, and
+ * no new bookings are taken for them ({@link #isDeleting}). The appointments then go in chunks of
+ * {@code doctor-deletion.chunk-size} with {@code DELETE ... LIMIT}, each chunk its own transaction followed by a short
+ * pause ({@code doctor-deletion.pause-millis}), so row locks are held briefly and bookings for other doctors keep going.
+ * Their archived appointments ({@code appointment_archive}) go the same way. The doctor row itself is deleted last,
+ * together with anything booked or archived for them in the meantime and their monthly rollups.
+ * <p>
+ * Every committed chunk stays deleted, so if the job fails or the application stops half way, deleting the doctor
+ * again resumes with what is left; until then the doctor is visible, bookable and can log in again. Deletions run one at
+ * a time; progress is kept for an hour after they finish.
+ */
+@Component
+public class DoctorDeletionJob {
+
+    private static final Logger logger = Logger.getLogger(DoctorDeletionJob.class.getName());
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final DoctorMonthlyStatsRepository doctorStatsRepository;
+    private final TokenService tokenService;
+    private final DoctorDirectory doctorDirectory;
+    private final AvailabilityEngine availabilityEngine;
+    private final AppointmentFeed appointmentFeed;
+    private final ScheduleCache scheduleCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final long pauseMillis;
+
+    private final Cache<Long, Progress> progress = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "doctor-deletion");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DoctorDeletionJob(AppointmentRepository appointmentRepository,
+                             ArchivedAppointmentRepository archivedAppointmentRepository,
+                             DoctorRepository doctorRepository,
+                             DoctorMonthlyStatsRepository doctorStatsRepository,
+                             TokenService tokenService,
+                             DoctorDirectory doctorDirectory,
+                             AvailabilityEngine availabilityEngine,
+                             AppointmentFeed appointmentFeed,
+                             ScheduleCache scheduleCache,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${doctor-deletion.chunk-size:1000}") int chunkSize,
+                             @Value("${doctor-deletion.pause-millis:20}") long pauseMillis) {
+        this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.doctorStatsRepository = doctorStatsRepository;
+        this.tokenService = tokenService;
+        this.doctorDirectory = doctorDirectory;
+        this.availabilityEngine = availabilityEngine;
+        this.appointmentFeed = appointmentFeed;
+        this.scheduleCache = scheduleCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseMillis = Math.max(0, pauseMillis);
+    }
+
+    /**
+     * Starts deleting the doctor, or returns the deletion already queued or running for them.
+     */
+    public Progress start(long doctorId) {
+        Progress started = new Progress(doctorId, appointmentRepository.countByDoctorId(doctorId)
+                + archivedAppointmentRepository.countByDoctorId(doctorId));
+        Progress existing = progress.asMap().compute(doctorId, (id, current) ->
+                current != null && !current.isFinished() ? current : started);
+        if (existing != started) {
+            return existing;
+        }
+        tokenService.revoke("doctor", doctorId);
+        doctorDirectory.remove(doctorId);
+        availabilityEngine.evictDoctor(doctorId);
+        appointmentFeed.closeDoctor(doctorId);
+        executor.execute(() -> run(started));
+        return started;
+    }
+
+    /**
+     * Progress of the latest deletion of the doctor, or {@code null} if there was none in the last hour.
+     */
+    public Progress getProgress(long doctorId) {
+        return progress.getIfPresent(doctorId);
+    }
+
+    /**
+     * Whether a deletion of the doctor is queued or running.
+     */
+    public boolean isDeleting(long doctorId) {
+        Progress current = progress.getIfPresent(doctorId);
+        return current != null && !current.isFinished();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void run(Progress job) {
+        job.state = RUNNING;
+        job.startedAt = LocalDateTime.now();
+        try {
+            deleteInChunks(job, archivedAppointmentRepository::deleteChunkByDoctorId);
+            deleteInChunks(job, appointmentRepository::deleteChunkByDoctorId);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                // bookings (or archiving) that happened while the chunks were deleted
+                job.deletedAppointments += archivedAppointmentRepository.deleteAllByDoctorId(job.doctorId);
+                job.deletedAppointments += appointmentRepository.deleteAllByDoctorId(job.doctorId);
+                doctorStatsRepository.deleteByDoctorId(job.doctorId);
+                doctorRepository.deleteById(job.doctorId);
+            });
+            availabilityEngine.evictDoctor(job.doctorId);
+            scheduleCache.invalidateDoctor(job.doctorId);
+            job.state = DONE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(job, "Interrupted");
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Deleting doctor " + job.doctorId + " stopped after "
+                    + job.deletedAppointments + " appointments", e);
+            fail(job, e.getMessage());
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private void deleteInChunks(Progress job, ChunkDelete delete) throws InterruptedException {
+        int deleted;
+        do {
+            deleted = delete.deleteChunk(job.doctorId, chunkSize);
+            job.deletedAppointments += deleted;
+            job.chunks++;
+            if (deleted == chunkSize && pauseMillis > 0) {
+                Thread.sleep(pauseMillis);
+            }
+        } while (deleted == chunkSize);
+    }
+
+    private interface ChunkDelete {
+        int deleteChunk(Long doctorId, int limit);
+    }
+
+    private void fail(Progress job, String error) {
+        job.state = FAILED;
+        job.error = error;
+        // the doctor is still there; let them log in and be found again until the deletion is retried
+        if (doctorRepository.existsById(job.doctorId)) {
+            tokenService.restore("doctor", job.doctorId);
+            doctorRepository.findById(job.doctorId).ifPresent(doctorDirectory::put);
+        }
+    }
+
+    /**
+     * State of one doctor deletion; written by the deletion thread only.
+     */
+    public static final class Progress {
+        private final long doctorId;
+        private final long totalAppointments;
+        private volatile String state = QUEUED;
+        private volatile long deletedAppointments;
+        private volatile int chunks;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        Progress(long doctorId, long totalAppointments) {
+            this.doctorId = doctorId;
+            this.totalAppointments = totalAppointments;
+        }
+
+        public long getDoctorId() {
+            return doctorId;
+        }
+
+        public String getState() {
+            return state;
+        }
+
+        public long getTotalAppointments() {
+            return totalAppointments;
+        }
+
+        public long getDeletedAppointments() {
+            return deletedAppointments;
+        }
+
+        public int getChunks() {
+            return chunks;
+        }
+
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isFinished() {
+            return DONE.equals(state) || FAILED.equals(state);
+        }
+    }
+}
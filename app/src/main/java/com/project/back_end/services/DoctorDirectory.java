@@ -0,0 +1,204 @@
+package com.project.back_end.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+
+/**
+ * In-process directory of all doctors, used to serve the doctor filters without a database round trip.
+ * <p>
+ * It keeps the doctors by id, a specialty-to-doctors map and a trigram index over normalized names
+ * (lower case, accents stripped). A name query of three or more characters intersects the posting lists of its
+ * trigrams and then verifies the substring match; shorter queries scan the candidate set directly.
+ * The directory is loaded once the application is ready and kept current by {@link DoctorService}.
+ */
+@Component
+public class DoctorDirectory {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final DoctorRepository doctorRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Doctor> doctors = new HashMap<>();
+    private final Map<Long, String> normalizedNames = new HashMap<>();
+    private final Map<String, Set<Long>> bySpecialty = new HashMap<>();
+    private final Map<String, Set<Long>> trigrams = new HashMap<>();
+
+    private volatile boolean ready;
+
+    public DoctorDirectory(DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        // read under the write lock: a put/remove (run after its commit) either lands before the read, which sees it,
+        // or waits for the new index instead of being overwritten by it
+        lock.writeLock().lock();
+        try {
+            List<Doctor> all = doctorRepository.findAll();
+            doctors.clear();
+            normalizedNames.clear();
+            bySpecialty.clear();
+            trigrams.clear();
+            for (Doctor doctor : all) {
+                index(doctor);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(Doctor doctor) {
+        lock.writeLock().lock();
+        try {
+            unindex(doctor.getId());
+            index(doctor);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long doctorId) {
+        lock.writeLock().lock();
+        try {
+            unindex(doctorId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Doctor get(long doctorId) {
+        lock.readLock().lock();
+        try {
+            return doctors.get(doctorId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return doctors.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Doctors whose name contains {@code name} (case and accent insensitive) and whose specialty equals
+     * {@code specialty} (case insensitive). A {@code null} argument does not filter. Results are ordered by id.
+     */
+    public List<Doctor> search(String name, String specialty) {
+        String query = name == null ? null : normalize(name);
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates;
+            if (specialty != null) {
+                candidates = bySpecialty.getOrDefault(normalize(specialty), Set.of());
+            } else if (query != null && query.length() >= 3) {
+                candidates = trigramCandidates(query);
+            } else {
+                candidates = doctors.keySet();
+            }
+
+            List<Long> ids = new ArrayList<>();
+            for (Long id : candidates) {
+                if (query == null || normalizedNames.get(id).contains(query)) {
+                    ids.add(id);
+                }
+            }
+            ids.sort(null);
+
+            List<Doctor> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                result.add(doctors.get(id));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Collection<Long> trigramCandidates(String query) {
+        List<Set<Long>> postings = new ArrayList<>();
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            Set<Long> posting = trigrams.get(query.substring(i, i + 3));
+            if (posting == null) {
+                return Set.of();
+            }
+            postings.add(posting);
+        }
+        postings.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        Set<Long> result = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+            result.retainAll(postings.get(i));
+        }
+        return result;
+    }
+
+    private void index(Doctor doctor) {
+        long id = doctor.getId();
+        String normalizedName = doctor.getName() == null ? "" : normalize(doctor.getName());
+        doctors.put(id, doctor);
+        normalizedNames.put(id, normalizedName);
+        if (doctor.getSpecialty() != null) {
+            bySpecialty.computeIfAbsent(normalize(doctor.getSpecialty()), k -> new HashSet<>()).add(id);
+        }
+        for (int i = 0; i + 3 <= normalizedName.length(); i++) {
+            trigrams.computeIfAbsent(normalizedName.substring(i, i + 3), k -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void unindex(long id) {
+        Doctor previous = doctors.remove(id);
+        String normalizedName = normalizedNames.remove(id);
+        if (previous == null) {
+            return;
+        }
+        if (previous.getSpecialty() != null) {
+            removePosting(bySpecialty, normalize(previous.getSpecialty()), id);
+        }
+        for (int i = 0; i + 3 <= normalizedName.length(); i++) {
+            removePosting(trigrams, normalizedName.substring(i, i + 3), id);
+        }
+    }
+
+    private static void removePosting(Map<String, Set<Long>> index, String key, long id) {
+        Set<Long> posting = index.get(key);
+        if (posting != null) {
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -4,16 +4,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.project.back_end.DTO.AvailableSlotDTO;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.models.Doctor;
-import com.project.back_end.models.Appointment;
+import com.project.back_end.models.DoctorSlots;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -22,13 +23,28 @@ public class DoctorService {
     private final DoctorRepository doctorRepository;
     private final AppointmentRepository appointmentRepository;
     private final TokenService tokenService;
+    private final DoctorDirectory doctorDirectory;
+    private final AvailabilityEngine availabilityEngine;
+    private final SlotSearchService slotSearchService;
+    private final SlotHoldManager slotHolds;
+    private final DoctorDeletionJob doctorDeletionJob;
 
     public DoctorService(DoctorRepository doctorRepository,
                          AppointmentRepository appointmentRepository,
-                         TokenService tokenService) {
+                         TokenService tokenService,
+                         DoctorDirectory doctorDirectory,
+                         AvailabilityEngine availabilityEngine,
+                         SlotSearchService slotSearchService,
+                         SlotHoldManager slotHolds,
+                         DoctorDeletionJob doctorDeletionJob) {
         this.doctorRepository = doctorRepository;
         this.appointmentRepository = appointmentRepository;
         this.tokenService = tokenService;
+        this.doctorDirectory = doctorDirectory;
+        this.availabilityEngine = availabilityEngine;
+        this.slotSearchService = slotSearchService;
+        this.slotHolds = slotHolds;
+        this.doctorDeletionJob = doctorDeletionJob;
     }
 
 
@@ -51,43 +67,73 @@ public class DoctorService {
 //    - Retrieves the available time slots for a specific doctor on a particular date and filters out already booked slots.
 //    - The method fetches all appointments for the doctor on the given date and calculates the availability by comparing against booked slots.
 //    - Instruction: Ensure that the time slots are properly formatted and the available slots are correctly filtered.
+//    - The doctor comes from the `DoctorDirectory` and the booked slots from the `AvailabilityEngine` bitmap for that day,
+//      so a repeated check costs no query; the day is read from the appointment table only the first time.
+//    - Slots held by another patient (`SlotHoldManager`) are left out; `patientId` is the patient asking, or null for doctors and admins.
 
     @Transactional
-    public List<String> getDoctorAvailability(Long doctorId, LocalDate date) {
+    public List<String> getDoctorAvailability(Long doctorId, LocalDate date, Long patientId) {
         try {
-            Optional<Doctor> doctor = doctorRepository.findById(doctorId);
-            if (doctor.isEmpty()) {
+            Doctor doctor = findDoctor(doctorId);
+            if (doctor == null || doctor.getAvailableTimes() == null) {
                 return new ArrayList<>();
             }
+            return slotHolds.withoutHeldSlots(doctorId, date, availabilityEngine.availableSlots(doctor, date), patientId);
+        } catch (Exception e) {
+            return new ArrayList<>();
+        }
+    }
 
-            List<String> availableTimes = doctor.get().getAvailableTimes();
-            if (availableTimes == null) {
-                return new ArrayList<>();
-            }
+// 4b. **getDoctorAvailabilityRange Method**:
+//    - Availability for `days` consecutive days starting at `from` (capped at `MAX_AVAILABILITY_DAYS`), keyed by ISO date.
+//    - All days that are not in the `AvailabilityEngine` yet are read with a single `appointmentTime` range query and grouped in memory,
+//      replacing one request, token check and query per day shown in a calendar view.
+//    - Held slots are left out as in `getDoctorAvailability`.
 
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.atTime(23, 59, 59);
-            List<Appointment> appointments = appointmentRepository
-                    .findByDoctorIdAndAppointmentTimeBetween(doctorId, startOfDay, endOfDay);
+    public static final int MAX_AVAILABILITY_DAYS = 31;
 
-            List<String> bookedTimes = new ArrayList<>();
-            for (Appointment apt : appointments) {
-                LocalTime aptTime = apt.getAppointmentTime().toLocalTime();
-                bookedTimes.add(aptTime.toString());
+    @Transactional
+    public Map<String, List<String>> getDoctorAvailabilityRange(Long doctorId, LocalDate from, int days, Long patientId) {
+        Map<String, List<String>> availability = new LinkedHashMap<>();
+        try {
+            Doctor doctor = findDoctor(doctorId);
+            if (doctor == null || doctor.getAvailableTimes() == null) {
+                return availability;
             }
-
-            List<String> finalAvailable = new ArrayList<>();
-            for (String time : availableTimes) {
-                if (!bookedTimes.contains(time)) {
-                    finalAvailable.add(time);
-                }
+            int span = Math.max(1, Math.min(days, MAX_AVAILABILITY_DAYS));
+            availabilityEngine.loadRange(doctorId, from, span);
+            for (int i = 0; i < span; i++) {
+                LocalDate date = from.plusDays(i);
+                availability.put(date.toString(),
+                        slotHolds.withoutHeldSlots(doctorId, date, availabilityEngine.availableSlots(doctor, date), patientId));
             }
-            return finalAvailable;
+            return availability;
         } catch (Exception e) {
-            return new ArrayList<>();
+            return new LinkedHashMap<>();
         }
     }
 
+// 4c. **findFirstAvailableSlots Method**:
+//    - The `limit` earliest open slots across all doctors of a specialty within `days` days, optionally only "AM", "PM" or "HH:mm-HH:mm".
+//    - Delegates to `SlotSearchService`, which merges per-doctor slot cursors through a priority queue.
+//    - Held slots are left out as in `getDoctorAvailability`.
+    @Transactional(readOnly = true)
+    public List<AvailableSlotDTO> findFirstAvailableSlots(String specialty, String time, int days, int limit, Long patientId) {
+        return slotSearchService.findFirstAvailable(specialty, time, days, limit, patientId);
+    }
+
+    public Map<String, Object> getAvailabilityStats() {
+        return availabilityEngine.getStats(doctorDirectory);
+    }
+
+    private Doctor findDoctor(Long doctorId) {
+        Doctor doctor = doctorDirectory.isReady() ? doctorDirectory.get(doctorId) : null;
+        if (doctor == null) {
+            doctor = doctorRepository.findById(doctorId).orElse(null);
+        }
+        return doctor;
+    }
+
 // 5. **saveDoctor Method**:
 //    - Used to save a new doctor record in the database after checking if a doctor with the same email already exists.
 //    - If a doctor with the same email is found, it returns `-1` to indicate conflict; `1` for success, and `0` for internal errors.
@@ -99,7 +145,8 @@ public class DoctorService {
             if (doctorRepository.findByEmail(doctor.getEmail()) != null) {
                 return -1;
             }
-            doctorRepository.save(doctor);
+            Doctor saved = doctorRepository.save(doctor);
+            TransactionHooks.afterCommit(() -> doctorDirectory.put(saved));
             return 1;
         } catch (Exception e) {
             return 0;
@@ -116,7 +163,8 @@ public class DoctorService {
             if (!doctorRepository.existsById(doctor.getId())) {
                 return -1;
             }
-            doctorRepository.save(doctor);
+            Doctor saved = doctorRepository.save(doctor);
+            TransactionHooks.afterCommit(() -> doctorDirectory.put(saved));
             return 1;
         } catch (Exception e) {
             return 0;
@@ -138,24 +186,32 @@ public class DoctorService {
 
 // 8. **deleteDoctor Method**:
 //    - Deletes a doctor from the system along with all appointments associated with that doctor.
-//    - It first checks if the doctor exists. If not, it returns `-1`; otherwise, it deletes the doctor and their appointments.
+//    - It first checks if the doctor exists. If not, it returns `-1`; otherwise, it starts the deletion and returns `1`.
 //    - Instruction: Ensure the doctor and their appointments are deleted properly, with error handling for internal issues.
+//    - The deletion runs in the background in short chunked transactions (see `DoctorDeletionJob`); `getDeletionProgress` reports how far it got.
+//      Calling it again for a doctor whose deletion failed resumes with the appointments that are left.
 
-    @Transactional
     public int deleteDoctor(Long doctorId) {
         try {
             if (!doctorRepository.existsById(doctorId)) {
                 return -1;
             }
-            appointmentRepository.deleteAllByDoctorId(null);
-            // appointmentRepository.deleteAll(appointments);
-            doctorRepository.deleteById(doctorId);
+            doctorDeletionJob.start(doctorId);
             return 1;
         } catch (Exception e) {
             return 0;
         }
     }
 
+    public DoctorDeletionJob.Progress getDeletionProgress(Long doctorId) {
+        return doctorDeletionJob.getProgress(doctorId);
+    }
+
+    // A doctor whose deletion is queued or running takes no new bookings; they would be deleted with the doctor.
+    public boolean isBeingDeleted(Long doctorId) {
+        return doctorId != null && doctorDeletionJob.isDeleting(doctorId);
+    }
+
 // 9. **validateDoctor Method**:
 //    - Validates a doctor's login by checking if the email and password match an existing doctor record.
 //    - It generates a token for the doctor if the login is successful, otherwise returns an error message.
@@ -173,7 +229,7 @@ public class DoctorService {
                 return "Invalid email or password";
             }
 
-            return tokenService.generateToken(email);
+            return tokenService.generateToken(email, "doctor", doctor.getId());
         } catch (Exception e) {
             return "Error validating doctor";
         }
@@ -183,10 +239,14 @@ public class DoctorService {
 //    - Finds doctors based on partial name matching and returns the list of doctors with their available times.
 //    - This method is annotated with `@Transactional` to ensure that the database query and data retrieval are properly managed within a trafindByNameLikensaction.
 //    - Instruction: Ensure that available times are eagerly loaded for the doctors.
+//    - Served from the in-memory `DoctorDirectory` once it is loaded; the `LIKE '%name%'` query is only a fallback during startup.
 
     @Transactional
     public List<Doctor> findDoctorByName(String name) {
         try {
+            if (doctorDirectory.isReady()) {
+                return doctorDirectory.search(name, null);
+            }
             return doctorRepository.findByNameLike(name);
         } catch (Exception e) {
             return new ArrayList<>();
@@ -207,14 +267,16 @@ public class DoctorService {
             if (specialty == null || specialty.equals("null")) specialty = null;
             if (time == null || time.equals("null")) time = null;
 
-            if (name==null && specialty==null) {
+            if (doctorDirectory.isReady()) {
+                doctors = doctorDirectory.search(name, specialty);
+            }else if (name==null && specialty==null) {
                 doctors = getDoctors();
             }else if (name!=null && specialty==null){
                 doctors = findDoctorByName(name);
             }else if (name!=null && specialty!=null ){
                 doctors = filterDoctorByNameAndSpecialty(name,specialty);
-            }else if (name!=null && specialty!=null) {
-                doctors = doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty);
+            }else {
+                doctors = filterDoctorBySpecialty(specialty);
             }
             if (time != null){
                 doctors = filterDoctorByTime(doctors,time);
@@ -231,34 +293,23 @@ public class DoctorService {
 //    - Filters a list of doctors based on whether their available times match the specified time period (AM/PM).
 //    - This method processes a list of doctors and their available times to return those that fit the time criteria.
 //    - Instruction: Ensure that the time filtering logic correctly handles both AM and PM time slots and edge cases.
+//    - `time` is "AM", "PM" or a window such as "09:00-11:30"; it is parsed once and tested against each doctor's
+//      precomputed slot mask (`Doctor.getSlots()`), so no slot string is parsed here.
 
     private List<Doctor> filterDoctorByTime(List<Doctor> doctors, String time) {
         List<Doctor> result = new ArrayList<>();
+        DoctorSlots.Window window = DoctorSlots.Window.parse(time);
+        if (window == null) {
+            return result;
+        }
         for (Doctor doctor : doctors) {
-            if (hasTimeSlot(doctor.getAvailableTimes(), time)) {
+            if (doctor.getSlots().matches(window)) {
                 result.add(doctor);
             }
         }
         return result;
     }
 
-    private boolean hasTimeSlot(List<String> availableTimes, String time) {
-        if (availableTimes == null) {
-            return false;
-        }
-
-        boolean isAM = "AM".equalsIgnoreCase(time);
-        for (String slot : availableTimes) {
-            LocalTime slotTime = LocalTime.parse(slot);
-            if (isAM && slotTime.isBefore(LocalTime.NOON)) {
-                return true;
-            } else if (!isAM && slotTime.isAfter(LocalTime.NOON)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
 // 13. **filterDoctorByNameAndTime Method**:
 //    - Filters doctors based on their name and the specified time period (AM/PM).
 //    - Fetches doctors based on partial name matching and filters the results to include only those available during the specified time period.
@@ -282,6 +333,9 @@ public class DoctorService {
     @Transactional
     public List<Doctor> filterDoctorByNameAndSpecialty(String name, String specialty) {
         try {
+            if (doctorDirectory.isReady()) {
+                return doctorDirectory.search(name, specialty);
+            }
             return doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty);
         } catch (Exception e) {
             return new ArrayList<>();
@@ -311,6 +365,9 @@ public class DoctorService {
     @Transactional
     public List<Doctor> filterDoctorBySpecialty(String specialty) {
         try {
+            if (doctorDirectory.isReady()) {
+                return doctorDirectory.search(null, specialty);
+            }
             return doctorRepository.findBySpecialtyIgnoreCase(specialty);
         } catch (Exception e) {
             return new ArrayList<>();
@@ -0,0 +1,287 @@
+package com.project.back_end.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.DTO.AppointmentSlot;
+import com.project.back_end.DTO.DoctorRanking;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+import com.project.back_end.repo.DoctorMonthlyStatsRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Per doctor and month counts of patients seen and cancellations ({@code doctor_monthly_stats}), so the leaderboards
+ * that {@code GetDoctorWithMostPatientsByMonth}/{@code ByYear} used to aggregate over every appointment read a few
+ * rows instead.
+ * <p>
+ * {@link AppointmentService} reports every booking, move, cancellation and status change here inside its own
+ * transaction, and the counters are adjusted with one upsert per affected (doctor, month), so they commit or roll back
+ * together with the appointments. An appointment counts as seen unless it is a no-show; the month is that of its time.
+ * Archiving does not change the counts.
+ * <p>
+ * {@link #rebuild()} recomputes patients seen from the appointment tables one month per transaction, in the
+ * background, e.g. after data was changed behind the application's back; it runs by itself on startup while the table
+ * is empty. Cancelled appointments are deleted, so their counter cannot be recomputed and is left as it is.
+ */
+@Component
+public class DoctorStatsRollup {
+
+    private static final Logger logger = Logger.getLogger(DoctorStatsRollup.class.getName());
+
+    public static final int MAX_LEADERBOARD_SIZE = 100;
+
+    private final DoctorMonthlyStatsRepository statsRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong currentMonths = new AtomicLong();
+    private volatile YearMonth currentMonth;
+    private volatile LocalDateTime lastStartedAt;
+    private volatile LocalDateTime lastFinishedAt;
+    private volatile long lastDurationMillis;
+    private volatile String lastError;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "doctor-stats-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DoctorStatsRollup(DoctorMonthlyStatsRepository statsRepository,
+                             AppointmentRepository appointmentRepository,
+                             ArchivedAppointmentRepository archivedAppointmentRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void booked(long doctorId, LocalDateTime time, int status) {
+        add(doctorId, time, seen(status), 0);
+    }
+
+    public void canceled(long doctorId, LocalDateTime time, int status) {
+        add(doctorId, time, -seen(status), 1);
+    }
+
+    public void statusChanged(long doctorId, LocalDateTime time, int previousStatus, int status) {
+        add(doctorId, time, seen(status) - seen(previousStatus), 0);
+    }
+
+    public void moved(long previousDoctorId, LocalDateTime previousTime, int previousStatus,
+                      long doctorId, LocalDateTime time, int status) {
+        Changes changes = changes();
+        changes.add(previousDoctorId, previousTime, -seen(previousStatus), 0);
+        changes.add(doctorId, time, seen(status), 0);
+        changes.apply();
+    }
+
+    /**
+     * Collects the changes of a batch, so each (doctor, month) is written once.
+     */
+    public Changes changes() {
+        return new Changes();
+    }
+
+    /**
+     * Status changes of locked appointments (see {@code AppointmentRepository.findSlotsForUpdateByDoctorId}) that were
+     * all set to {@code status}.
+     */
+    public void statusChanged(List<AppointmentSlot> slots, int status) {
+        Changes changes = changes();
+        for (AppointmentSlot slot : slots) {
+            changes.add(slot.getDoctorId(), slot.getAppointmentTime(), seen(status) - seen(slot.getStatus()), 0);
+        }
+        changes.apply();
+    }
+
+    public List<DoctorRanking> getMonthlyLeaderboard(YearMonth month, int limit) {
+        return statsRepository.findMonthlyLeaderboard(month.getYear(), month.getMonthValue(), Limit.of(leaderboardSize(limit)));
+    }
+
+    public List<DoctorRanking> getYearlyLeaderboard(int year, int limit) {
+        return statsRepository.findYearlyLeaderboard(year, Limit.of(leaderboardSize(limit)));
+    }
+
+    /**
+     * Starts recomputing patients seen for every month with appointments. Returns false if a rebuild is running already.
+     */
+    public boolean rebuild() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(this::runRebuild);
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (statsRepository.count() == 0 && earliestAppointmentTime() != null) {
+            rebuild();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("running", running.get());
+        stats.put("rebuilds", rebuilds.get());
+        // while a rebuild runs these are its progress so far, afterwards they describe the last run
+        stats.put("months", currentMonths.get());
+        stats.put("month", currentMonth != null ? currentMonth.toString() : null);
+        stats.put("lastStartedAt", lastStartedAt);
+        stats.put("lastFinishedAt", lastFinishedAt);
+        stats.put("lastDurationMillis", lastDurationMillis);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void runRebuild() {
+        long started = System.nanoTime();
+        lastStartedAt = LocalDateTime.now();
+        currentMonths.set(0);
+        rebuilds.incrementAndGet();
+        try {
+            LocalDateTime earliest = earliestAppointmentTime();
+            LocalDateTime latest = latestAppointmentTime();
+            if (earliest == null) {
+                // no appointments left at all: every month is outside the (empty) range
+                statsRepository.clearPatientsSeenOutside(Long.MAX_VALUE, Long.MIN_VALUE);
+            } else {
+                YearMonth first = YearMonth.from(earliest);
+                YearMonth last = YearMonth.from(latest);
+                for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new IllegalStateException("Interrupted");
+                    }
+                    currentMonth = month;
+                    rebuildMonth(month);
+                    currentMonths.incrementAndGet();
+                }
+                statsRepository.clearPatientsSeenOutside(index(first), index(last));
+            }
+            lastError = null;
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            logger.log(Level.WARNING, "Doctor stats rebuild stopped after " + currentMonths.get() + " months", e);
+        } finally {
+            currentMonth = null;
+            lastDurationMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+            lastFinishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+        logger.info("Doctor stats rebuilt for " + currentMonths.get() + " months (" + lastDurationMillis + " ms)");
+    }
+
+    private void rebuildMonth(YearMonth month) {
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        transactionTemplate.executeWithoutResult(status -> {
+            // counts first: the appointment rows are locked before any stats row, in the order the booking paths use
+            statsRepository.rebuildPatientsSeen(month.getYear(), month.getMonthValue(), start, end, Appointment.NO_SHOW);
+            statsRepository.clearPatientsSeenWithoutAppointments(month.getYear(), month.getMonthValue(), start, end, Appointment.NO_SHOW);
+        });
+    }
+
+    private LocalDateTime earliestAppointmentTime() {
+        return min(appointmentRepository.findEarliestAppointmentTime(), archivedAppointmentRepository.findEarliestAppointmentTime());
+    }
+
+    private LocalDateTime latestAppointmentTime() {
+        LocalDateTime hot = appointmentRepository.findLatestAppointmentTime();
+        LocalDateTime archived = archivedAppointmentRepository.findLatestAppointmentTime();
+        if (hot == null || archived == null) {
+            return hot != null ? hot : archived;
+        }
+        return hot.isAfter(archived) ? hot : archived;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        if (a == null || b == null) {
+            return a != null ? a : b;
+        }
+        return a.isBefore(b) ? a : b;
+    }
+
+    private void add(long doctorId, LocalDateTime time, long patientsSeen, long cancellations) {
+        add(doctorId, time.getYear(), time.getMonthValue(), patientsSeen, cancellations);
+    }
+
+    private void add(long doctorId, int year, int month, long patientsSeen, long cancellations) {
+        if (patientsSeen != 0 || cancellations != 0) {
+            statsRepository.add(doctorId, year, month, patientsSeen, cancellations);
+        }
+    }
+
+    private static int seen(int status) {
+        return status == Appointment.NO_SHOW ? 0 : 1;
+    }
+
+    private static long index(YearMonth month) {
+        return month.getYear() * 12L + month.getMonthValue() - 1;
+    }
+
+    private static int leaderboardSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LEADERBOARD_SIZE));
+    }
+
+    /**
+     * Counter deltas summed per (doctor, month); {@link #apply()} writes them in the current transaction.
+     */
+    public final class Changes {
+        private final Map<Long, long[]> deltas = new LinkedHashMap<>();
+
+        private Changes() {
+        }
+
+        public void booked(long doctorId, LocalDateTime time, int status) {
+            add(doctorId, time, seen(status), 0);
+        }
+
+        private void add(long doctorId, LocalDateTime time, long patientsSeen, long cancellations) {
+            long[] delta = deltas.computeIfAbsent((doctorId << 24) | index(YearMonth.from(time)), key -> new long[2]);
+            delta[0] += patientsSeen;
+            delta[1] += cancellations;
+        }
+
+        public void apply() {
+            for (Map.Entry<Long, long[]> entry : deltas.entrySet()) {
+                long key = entry.getKey();
+                long monthIndex = key & 0xFFFFFF;
+                DoctorStatsRollup.this.add(key >>> 24, (int) (monthIndex / 12), (int) (monthIndex % 12) + 1,
+                        entry.getValue()[0], entry.getValue()[1]);
+            }
+            deltas.clear();
+        }
+    }
+}
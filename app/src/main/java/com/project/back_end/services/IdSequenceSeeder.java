@@ -0,0 +1,71 @@
+package com.project.back_end.services;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Starts the pooled id sequences of admin, doctor, patient and appointment above the ids already in use.
+ * <p>
+ * On MySQL each sequence is a one-row table {@code <entity>_seq(next_val)} that {@code ddl-auto} creates with
+ * {@code next_val = 1}, so on a database that already has rows (created with IDENTITY ids, or loaded by
+ * {@code data.sql}) the first inserts would collide with existing keys. Before the application takes any request, every
+ * sequence is raised to {@code max(id) + 50} of its tables; the appointment sequence also covers
+ * {@code appointment_archive}, whose rows keep their ids. A sequence is only ever moved up, so running instances are
+ * not affected.
+ */
+@Component
+public class IdSequenceSeeder {
+
+    private static final Logger logger = Logger.getLogger(IdSequenceSeeder.class.getName());
+
+    // allocationSize of the entities' @SequenceGenerator: the pooled optimizer hands out (next_val - 49) .. next_val
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, List<String>> SEQUENCES = new LinkedHashMap<>();
+
+    static {
+        SEQUENCES.put("admin_seq", List.of("admin"));
+        SEQUENCES.put("doctor_seq", List.of("doctor"));
+        SEQUENCES.put("patient_seq", List.of("patient"));
+        SEQUENCES.put("appointment_seq", List.of("appointment", "appointment_archive"));
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // the EntityManagerFactory is only injected so that ddl-auto has created the tables before seed() runs
+    public IdSequenceSeeder(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void seed() {
+        for (Map.Entry<String, List<String>> sequence : SEQUENCES.entrySet()) {
+            long maxId = 0;
+            for (String table : sequence.getValue()) {
+                Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+                maxId = Math.max(maxId, max != null ? max : 0);
+            }
+            long nextVal = maxId + ALLOCATION_SIZE;
+            String name = sequence.getKey();
+            int raised = jdbcTemplate.update("UPDATE " + name + " SET next_val = ? WHERE next_val < ?", nextVal, nextVal);
+            Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + name, Integer.class);
+            if (rows == null || rows == 0) {
+                jdbcTemplate.update("INSERT INTO " + name + " (next_val) VALUES (?)", nextVal);
+                raised = 1;
+            }
+            if (raised > 0) {
+                logger.info("Id sequence " + name + " raised to " + nextVal + " (max id " + maxId + ")");
+            }
+        }
+    }
+}
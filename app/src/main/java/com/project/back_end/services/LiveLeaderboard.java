@@ -0,0 +1,122 @@
+package com.project.back_end.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.DTO.AppointmentEvent;
+import com.project.back_end.models.Doctor;
+
+/**
+ * Live leaderboard of the most booked doctors and specialties over the last hour, day and week.
+ * <p>
+ * Every committed booking ({@link AppointmentEvent#CREATED}, published by {@code AppointmentService}) is offered to a
+ * {@link SlidingTopK} per window and dimension: the hour in 12 panes of 5 minutes, the day in 24 panes of an hour and
+ * the week in 28 panes of 6 hours. Each pane is a Space-Saving summary of {@code live-leaderboard.doctor-capacity}
+ * doctors or {@code live-leaderboard.specialty-capacity} specialties, so memory is fixed however many doctors and
+ * bookings there are, and the counts are estimates within (bookings in the window / capacity) of the truth. Nothing
+ * is read from the database; the specialty comes from the {@link DoctorDirectory}. The leaderboard starts empty on
+ * every start of the application; the monthly rollups ({@link DoctorStatsRollup}) are the durable record.
+ */
+@Component
+public class LiveLeaderboard {
+
+    public static final String HOUR = "hour";
+    public static final String DAY = "day";
+    public static final String WEEK = "week";
+
+    public static final int MAX_SIZE = 50;
+
+    private final DoctorDirectory doctorDirectory;
+    private final Map<String, SlidingTopK<Long>> doctors = new LinkedHashMap<>();
+    private final Map<String, SlidingTopK<String>> specialties = new LinkedHashMap<>();
+
+    public LiveLeaderboard(DoctorDirectory doctorDirectory,
+                           @Value("${live-leaderboard.doctor-capacity:512}") int doctorCapacity,
+                           @Value("${live-leaderboard.specialty-capacity:64}") int specialtyCapacity,
+                           @Value("${live-leaderboard.refresh-millis:1000}") long refreshMillis) {
+        this.doctorDirectory = doctorDirectory;
+        addWindow(HOUR, 12, Duration.ofMinutes(5), doctorCapacity, specialtyCapacity, refreshMillis);
+        addWindow(DAY, 24, Duration.ofHours(1), doctorCapacity, specialtyCapacity, refreshMillis);
+        addWindow(WEEK, 28, Duration.ofHours(6), doctorCapacity, specialtyCapacity, refreshMillis);
+    }
+
+    private void addWindow(String window, int panes, Duration pane, int doctorCapacity, int specialtyCapacity, long refreshMillis) {
+        doctors.put(window, new SlidingTopK<>(panes, pane.toMillis(), Math.max(1, doctorCapacity), refreshMillis));
+        specialties.put(window, new SlidingTopK<>(panes, pane.toMillis(), Math.max(1, specialtyCapacity), refreshMillis));
+    }
+
+    public static boolean isWindow(String window) {
+        return HOUR.equals(window) || DAY.equals(window) || WEEK.equals(window);
+    }
+
+    @EventListener
+    public void onAppointmentEvent(AppointmentEvent event) {
+        if (!AppointmentEvent.CREATED.equals(event.getType())) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long doctorId = event.getDoctorId();
+        Doctor doctor = doctorDirectory.get(doctorId);
+        String specialty = doctor != null && doctor.getSpecialty() != null ? doctor.getSpecialty().trim() : null;
+        for (SlidingTopK<Long> topDoctors : doctors.values()) {
+            topDoctors.offer(doctorId, now);
+        }
+        if (specialty != null) {
+            for (SlidingTopK<String> topSpecialties : specialties.values()) {
+                topSpecialties.offer(specialty, now);
+            }
+        }
+    }
+
+    /**
+     * The {@code limit} most booked doctors and specialties of the window ({@link #HOUR}, {@link #DAY} or
+     * {@link #WEEK}). Throws {@code IllegalArgumentException} for any other window.
+     */
+    public Map<String, Object> getTop(String window, int limit) {
+        if (!isWindow(window)) {
+            throw new IllegalArgumentException("Window must be hour, day or week");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_SIZE));
+        long now = System.currentTimeMillis();
+        SlidingTopK<Long> topDoctors = doctors.get(window);
+
+        List<Map<String, Object>> doctorRows = new ArrayList<>(size);
+        for (SpaceSaving.Entry<Long> entry : topDoctors.top(size, now)) {
+            Doctor doctor = doctorDirectory.get(entry.getKey());
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("doctorId", entry.getKey());
+            row.put("name", doctor != null ? doctor.getName() : null);
+            row.put("specialty", doctor != null ? doctor.getSpecialty() : null);
+            row.put("bookings", entry.getCount());
+            row.put("atLeast", entry.getGuaranteed());
+            doctorRows.add(row);
+        }
+        List<Map<String, Object>> specialtyRows = new ArrayList<>(size);
+        for (SpaceSaving.Entry<String> entry : specialties.get(window).top(size, now)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("specialty", entry.getKey());
+            row.put("bookings", entry.getCount());
+            row.put("atLeast", entry.getGuaranteed());
+            specialtyRows.add(row);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("window", window);
+        result.put("paneMinutes", Duration.ofMillis(topDoctors.paneMillis()).toMinutes());
+        long bookings = topDoctors.offered(now);
+        result.put("bookings", bookings);
+        // a doctor or specialty may be counted up to this many bookings too high (or, for atLeast, too low)
+        result.put("doctorMaxError", bookings / topDoctors.capacity());
+        result.put("specialtyMaxError", bookings / specialties.get(window).capacity());
+        result.put("doctors", doctorRows);
+        result.put("specialties", specialtyRows);
+        return result;
+    }
+}
@@ -1,15 +1,19 @@
 package com.project.back_end.services;
 
 import com.project.back_end.DTO.AppointmentDTO;
-import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.PatientRepository;
 
 import jakarta.transaction.Transactional;
+import jakarta.validation.Validator;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import java.util.List;
@@ -23,6 +27,8 @@ public class PatientService {
     private PatientRepository patientRepository;
     private AppointmentRepository appointmentRepository;
     private TokenService tokenService;
+    private BatchWriter batchWriter;
+    private Validator validator;
 
     Logger logger = Logger.getLogger(PatientService.class.getName());
 
@@ -36,10 +42,13 @@ public class PatientService {
 //    - The `PatientService` class has dependencies on `PatientRepository`, `AppointmentRepository`, and `TokenService`.
 //    - These dependencies are injected via the constructor to maintain good practices of dependency injection and testing.
 //    - Instruction: Ensure constructor injection is used for all the required dependencies.
-    public PatientService(PatientRepository patientRepository, AppointmentRepository appointmentRepository, TokenService tokenService) {
+    public PatientService(PatientRepository patientRepository, AppointmentRepository appointmentRepository, TokenService tokenService,
+                          BatchWriter batchWriter, Validator validator) {
         this.patientRepository = patientRepository;
         this.appointmentRepository = appointmentRepository;
         this.tokenService = tokenService;
+        this.batchWriter = batchWriter;
+        this.validator = validator;
     }
 
 // 3. **createPatient Method**:
@@ -55,9 +64,58 @@ public class PatientService {
             return 0;
         }
     }
+// 3b. **importPatients Method**:
+//    - Admin bulk import: inserts all valid patients in one transaction, as JDBC batches (see `BatchWriter`).
+//    - Rows failing bean validation are counted as `invalid`; rows whose email or phone already exists (in the database or earlier
+//      in the same import) are counted as `duplicates`. Existing emails and phones are read with one query each.
+//    - Returns the counts under `imported`, `duplicates` and `invalid`.
+    public static final int MAX_IMPORT_SIZE = 10_000;
+
+    @Transactional
+    public Map<String, Integer> importPatients(List<Patient> patients) {
+        if (patients.size() > MAX_IMPORT_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_IMPORT_SIZE + " patients per import");
+        }
+        int invalid = 0;
+        List<Patient> valid = new ArrayList<>(patients.size());
+        for (Patient patient : patients) {
+            if (patient == null || !validator.validate(patient).isEmpty()) {
+                invalid++;
+            } else {
+                valid.add(patient);
+            }
+        }
+
+        Set<String> emails = new HashSet<>();
+        Set<String> phones = new HashSet<>();
+        for (Patient patient : valid) {
+            emails.add(patient.getEmail());
+            phones.add(patient.getPhone());
+        }
+        Set<String> takenEmails = emails.isEmpty() ? new HashSet<>() : new HashSet<>(patientRepository.findExistingEmails(emails));
+        Set<String> takenPhones = phones.isEmpty() ? new HashSet<>() : new HashSet<>(patientRepository.findExistingPhones(phones));
+
+        List<Patient> fresh = new ArrayList<>(valid.size());
+        for (Patient patient : valid) {
+            // add() doubles as the check for duplicates inside the import itself
+            if (takenEmails.add(patient.getEmail()) && takenPhones.add(patient.getPhone())) {
+                patient.setId(null);
+                fresh.add(patient);
+            }
+        }
+        batchWriter.persistAll(fresh);
+
+        Map<String, Integer> result = new HashMap<>();
+        result.put("imported", fresh.size());
+        result.put("duplicates", valid.size() - fresh.size());
+        result.put("invalid", invalid);
+        return result;
+    }
+
 // 4. **getPatientAppointment Method**:
 //    - Retrieves a list of appointments for a specific patient, based on their ID.
 //    - The appointments are then converted into `AppointmentDTO` objects for easier consumption by the API client.
+//    - The query projects straight into `AppointmentDTO` (see `AppointmentRepositoryCustom`), so it is one statement however long the history is.
 //    - This method is marked as `@Transactional` to ensure database consistency during the transaction.
 //    - Instruction: Ensure that appointment data is properly converted into DTOs and the method handles errors gracefully.
 
@@ -65,19 +123,7 @@ public class PatientService {
     public ResponseEntity<List<AppointmentDTO> > getPatientAppointment(Long patientId) {
 
         try {
-            List<Appointment> appointments = appointmentRepository.findByPatientId(patientId);
-            List<AppointmentDTO> appDTO= appointments.stream()
-                    .map(appointment -> new AppointmentDTO(
-                    appointment.getId(),
-                    appointment.getDoctor().getId(),
-                    appointment.getPatient().getId(),
-                    appointment.getPatient().getName(),
-                    appointment.getPatient().getEmail(),
-                    appointment.getPatient().getPhone(),
-                    appointment.getPatient().getAddress(),
-                   appointment.getAppointmentTime(),
-                    appointment.getStatus()
-            )).toList();
+            List<AppointmentDTO> appDTO = appointmentRepository.findHistoryByPatientId(patientId);
             return ResponseEntity.status(HttpStatus.OK).body(appDTO);
         } catch (Exception e) {
             logger.severe("Error fetching patient appointments: " + e.getMessage());
@@ -107,28 +153,49 @@ public class PatientService {
 //    - This method combines filtering by doctor name and appointment status (past or future).
 //    - Converts the appointments into `AppointmentDTO` objects and returns them in the response.
 //    - Instruction: Ensure that the filter handles both doctor name and condition properly, and catches errors for invalid input.
-public ResponseEntity<List<AppointmentDTO>> filterByDoctorAndCondition(Long patientId, String doctorName, String condition) {
+//    - Both filters are evaluated in the query: "future" is a scheduled appointment that has not started yet, "past" is everything
+//      else (started already, or completed/prescribed/no-show); `doctorName` and `condition` are optional ("null" counts as absent).
+//    - Returns one page of at most `size` appointments (future soonest first, past most recent first) under `appointments`, and
+//      under `next` the `afterTime`/`afterId` to pass for the following page, or null on the last page.
+//    - An unknown condition is answered with 400.
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public ResponseEntity<Map<String, Object>> filterByDoctorAndCondition(Long patientId, String doctorName, String condition,
+                                                                          LocalDateTime afterTime, Long afterId, int size) {
+        Map<String, Object> response = new HashMap<>();
+        Boolean future;
+        if (condition == null || condition.isEmpty() || condition.equalsIgnoreCase("null")) {
+            future = null;
+        } else if (condition.equalsIgnoreCase("future")) {
+            future = true;
+        } else if (condition.equalsIgnoreCase("past")) {
+            future = false;
+        } else {
+            response.put("error", "Condition must be past or future");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        String name = doctorName == null || doctorName.equalsIgnoreCase("null") ? null : doctorName;
+        int pageSize = size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
         try {
-            int status = condition.equalsIgnoreCase("future") ? 0 : 1;
-            List<Appointment> appointments = appointmentRepository.filterByDoctorNameAndPatientId(doctorName,patientId);
-            List<AppointmentDTO> appDTO= appointments.stream()
-                    .map(appointment -> new AppointmentDTO(
-                            appointment.getId(),
-                            appointment.getDoctor().getId(),
-                            appointment.getPatient().getId(),
-                            appointment.getPatient().getName(),
-                            appointment.getPatient().getEmail(),
-                            appointment.getPatient().getPhone(),
-                            appointment.getPatient().getAddress(),
-                            appointment.getAppointmentTime(),
-                            appointment.getStatus()
-                    )).toList();
-            return ResponseEntity.status(HttpStatus.OK).body(appDTO);
+            // one row more than the page tells whether there is a next page
+            List<AppointmentDTO> rows = appointmentRepository.findHistoryPage(
+                    patientId, name, future, LocalDateTime.now(), afterTime, afterId, pageSize + 1);
+            Map<String, Object> next = null;
+            if (rows.size() > pageSize) {
+                rows = rows.subList(0, pageSize);
+                AppointmentDTO last = rows.get(pageSize - 1);
+                next = new HashMap<>();
+                next.put("afterTime", last.getAppointmentTime());
+                next.put("afterId", last.getId());
+            }
+            response.put("appointments", rows);
+            response.put("next", next);
+            return ResponseEntity.status(HttpStatus.OK).body(response);
         } catch (Exception e) {
             logger.severe("Error filtering appointments: " + e.getMessage());
-            return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ArrayList<AppointmentDTO>()); // Return an empty list in case of error
+            response.put("appointments", new ArrayList<AppointmentDTO>()); // Return an empty list in case of error
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
     
@@ -0,0 +1,114 @@
+package com.project.back_end.services;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AppointmentEvent;
+import com.project.back_end.repo.AppointmentRepository;
+
+/**
+ * A doctor's appointments of one day, as {@link AppointmentDTO}s ordered by time, kept between requests.
+ * <p>
+ * Caffeine (W-TinyLFU admission, so a burst of one-off days does not push out the days dashboards keep reading) bounded
+ * by {@code schedule-cache.max-rows} appointments in total. Entries are keyed by (doctor, day) like the
+ * {@link AvailabilityEngine} bitmaps and dropped as soon as an {@link AppointmentEvent} says that day changed; the
+ * listener runs before {@link AppointmentFeed}'s, so a dashboard reloading on the event never reads the old day.
+ * Invalidating waits for a load of the same day in progress, so a load that read the day before the change cannot
+ * put it back afterwards. The end-of-day sweep and doctor deletion invalidate what they touch directly, and
+ * {@code schedule-cache.ttl-minutes} bounds how long anything changed behind the application's back is served.
+ */
+@Component
+public class ScheduleCache {
+
+    private final AppointmentRepository appointmentRepository;
+    private final Cache<Long, List<AppointmentDTO>> days;
+    private final long maxRows;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ScheduleCache(AppointmentRepository appointmentRepository,
+                         @Value("${schedule-cache.max-rows:100000}") long maxRows,
+                         @Value("${schedule-cache.ttl-minutes:10}") long ttlMinutes) {
+        this.appointmentRepository = appointmentRepository;
+        this.maxRows = Math.max(1, maxRows);
+        this.days = Caffeine.newBuilder()
+                // an empty day still costs its entry
+                .maximumWeight(this.maxRows)
+                .<Long, List<AppointmentDTO>>weigher((key, rows) -> rows.size() + 1)
+                .expireAfterWrite(Duration.ofMinutes(Math.max(1, ttlMinutes)))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The doctor's appointments on {@code date}, ordered by time; loaded with one query on a miss. The list is shared
+     * by all callers and must not be modified.
+     */
+    public List<AppointmentDTO> getDay(long doctorId, LocalDate date) {
+        return days.get(AvailabilityEngine.key(doctorId, date.toEpochDay()), key -> List.copyOf(
+                appointmentRepository.findScheduleByDoctorIdAndAppointmentTimeBetween(doctorId, null,
+                        date.atStartOfDay(), date.plusDays(1).atStartOfDay())));
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onAppointmentEvent(AppointmentEvent event) {
+        invalidate(event.getDoctorId(), event.getAppointmentTime());
+        if (event.getPreviousDoctorId() != null) {
+            invalidate(event.getPreviousDoctorId(), event.getPreviousAppointmentTime());
+        }
+    }
+
+    public void invalidateDoctor(long doctorId) {
+        invalidations.incrementAndGet();
+        days.asMap().keySet().removeIf(key -> (key >>> 24) == doctorId);
+    }
+
+    /**
+     * Drops every cached day up to and including {@code last}, e.g. after a bulk change of past appointments.
+     */
+    public void invalidateUntil(LocalDate last) {
+        invalidations.incrementAndGet();
+        long lastDay = last.toEpochDay();
+        days.asMap().keySet().removeIf(key -> (key & 0xFFFFFF) <= lastDay);
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = days.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("days", days.estimatedSize());
+        result.put("maxRows", maxRows);
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRatio", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("evictedRows", stats.evictionWeight());
+        result.put("invalidations", invalidations.get());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        return result;
+    }
+
+    private void invalidate(long doctorId, LocalDateTime time) {
+        if (time == null) {
+            // a batch change without times may touch any of the doctor's days
+            invalidateDoctor(doctorId);
+            return;
+        }
+        invalidations.incrementAndGet();
+        days.invalidate(AvailabilityEngine.key(doctorId, time.toLocalDate().toEpochDay()));
+    }
+}
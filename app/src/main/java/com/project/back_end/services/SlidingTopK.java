@@ -0,0 +1,136 @@
+package com.project.back_end.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Heavy hitters of a sliding time window: a ring of {@code panes} {@link SpaceSaving} summaries, one per
+ * {@code paneMillis} of time. An offer goes to the current pane (reusing the pane that fell out of the window); the
+ * window is the current pane and the ones before it, so it moves in steps of one pane. Memory is fixed at
+ * {@code panes * capacity} counters.
+ * <p>
+ * Reading merges the live panes: a key's count is the sum of its counters plus, for every full pane it has no counter
+ * in, that pane's smallest count (the most it can have been seen there), so the count never underestimates and
+ * {@code count - error} never overestimates; both are within {@code n / capacity} of the truth for {@code n} offers in
+ * the window. The merged ranking is kept and rebuilt at most every {@code refreshMillis} or when the window moved, so
+ * reading the top {@code k} otherwise costs O(k).
+ */
+public final class SlidingTopK<K> {
+
+    private final long paneMillis;
+    private final long refreshMillis;
+    private final int capacity;
+    private final SpaceSaving<K>[] panes;
+    private final long[] paneNumbers;
+    private volatile Ranking<K> ranking;
+
+    @SuppressWarnings("unchecked")
+    public SlidingTopK(int panes, long paneMillis, int capacity, long refreshMillis) {
+        if (panes < 1 || paneMillis < 1) {
+            throw new IllegalArgumentException("panes and paneMillis must be positive");
+        }
+        this.paneMillis = paneMillis;
+        this.refreshMillis = Math.max(0, refreshMillis);
+        this.capacity = capacity;
+        this.panes = (SpaceSaving<K>[]) new SpaceSaving[panes];
+        this.paneNumbers = new long[panes];
+        for (int i = 0; i < panes; i++) {
+            this.panes[i] = new SpaceSaving<>(capacity);
+            this.paneNumbers[i] = Long.MIN_VALUE;
+        }
+    }
+
+    public synchronized void offer(K key, long nowMillis) {
+        long number = Math.floorDiv(nowMillis, paneMillis);
+        int slot = (int) Math.floorMod(number, (long) panes.length);
+        if (paneNumbers[slot] != number) {
+            panes[slot].clear();
+            paneNumbers[slot] = number;
+        }
+        panes[slot].offer(key);
+    }
+
+    /**
+     * The {@code k} keys with the highest counts in the window ending at {@code nowMillis}, highest first.
+     */
+    public List<SpaceSaving.Entry<K>> top(int k, long nowMillis) {
+        List<SpaceSaving.Entry<K>> entries = ranking(nowMillis).entries;
+        return entries.subList(0, Math.min(Math.max(0, k), entries.size()));
+    }
+
+    /**
+     * Number of offers in the window ending at {@code nowMillis}, as of the ranking {@link #top} reads.
+     */
+    public long offered(long nowMillis) {
+        return ranking(nowMillis).offered;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int panes() {
+        return panes.length;
+    }
+
+    public long paneMillis() {
+        return paneMillis;
+    }
+
+    private Ranking<K> ranking(long nowMillis) {
+        long pane = Math.floorDiv(nowMillis, paneMillis);
+        Ranking<K> current = ranking;
+        if (current == null || current.pane != pane || nowMillis - current.builtAt >= refreshMillis) {
+            current = rank(pane, nowMillis);
+            ranking = current;
+        }
+        return current;
+    }
+
+    private synchronized Ranking<K> rank(long pane, long nowMillis) {
+        Map<K, long[]> merged = new HashMap<>();
+        long missing = 0;
+        long offered = 0;
+        for (int slot = 0; slot < panes.length; slot++) {
+            if (paneNumbers[slot] > pane - panes.length && paneNumbers[slot] <= pane) {
+                SpaceSaving<K> summary = panes[slot];
+                long min = summary.min();
+                missing += min;
+                offered += summary.offered();
+                summary.forEach(entry -> {
+                    long[] totals = merged.computeIfAbsent(entry.getKey(), key -> new long[3]);
+                    totals[0] += entry.getCount();
+                    totals[1] += entry.getError();
+                    totals[2] += min;
+                });
+            }
+        }
+        List<SpaceSaving.Entry<K>> entries = new ArrayList<>(merged.size());
+        for (Map.Entry<K, long[]> entry : merged.entrySet()) {
+            long[] totals = entry.getValue();
+            // panes where the key has no counter: it was seen there at most the pane's smallest count
+            long absent = missing - totals[2];
+            entries.add(new SpaceSaving.Entry<>(entry.getKey(), totals[0] + absent, totals[1] + absent));
+        }
+        entries.sort(SpaceSaving.Entry.BY_COUNT);
+        // as many keys as one pane tracks; readers ask for far fewer
+        List<SpaceSaving.Entry<K>> kept = List.copyOf(entries.subList(0, Math.min(capacity, entries.size())));
+        return new Ranking<>(pane, nowMillis, offered, kept);
+    }
+
+    private static final class Ranking<K> {
+        private final long pane;
+        private final long builtAt;
+        private final long offered;
+        private final List<SpaceSaving.Entry<K>> entries;
+
+        Ranking(long pane, long builtAt, long offered, List<SpaceSaving.Entry<K>> entries) {
+            this.pane = pane;
+            this.builtAt = builtAt;
+            this.offered = offered;
+            this.entries = entries;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.project.back_end.services;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.project.back_end.models.DoctorSlots;
+
+/**
+ * Booked quarter hours of one doctor on one day: bit {@code i} is set when an appointment starts in
+ * {@code [15*i, 15*i + 15)} minutes after midnight. Updates are lock-free compare-and-set operations.
+ */
+public final class SlotBitmap {
+
+    private final AtomicLongArray words = new AtomicLongArray(2);
+
+    public static int quarterOf(int minuteOfDay) {
+        return minuteOfDay / 15;
+    }
+
+    public boolean isSet(int quarter) {
+        return (words.get(quarter >>> 6) & (1L << quarter)) != 0;
+    }
+
+    /**
+     * Sets the bit. Returns {@code false} if it was already set.
+     */
+    public boolean set(int quarter) {
+        int index = quarter >>> 6;
+        long bit = 1L << quarter;
+        while (true) {
+            long current = words.get(index);
+            if ((current & bit) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(index, current, current | bit)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Clears the bit. Returns {@code false} if it was not set.
+     */
+    public boolean clear(int quarter) {
+        int index = quarter >>> 6;
+        long bit = 1L << quarter;
+        while (true) {
+            long current = words.get(index);
+            if ((current & bit) == 0) {
+                return false;
+            }
+            if (words.compareAndSet(index, current, current & ~bit)) {
+                return true;
+            }
+        }
+    }
+
+    public int cardinality() {
+        return Long.bitCount(words.get(0)) + Long.bitCount(words.get(1));
+    }
+
+    /**
+     * Number of the doctor's offered slots that are booked in this bitmap.
+     */
+    public int bookedAmong(DoctorSlots slots) {
+        int booked = 0;
+        for (int i = 0; i < slots.size(); i++) {
+            if (isSet(quarterOf(slots.startMinute(i)))) {
+                booked++;
+            }
+        }
+        return booked;
+    }
+}
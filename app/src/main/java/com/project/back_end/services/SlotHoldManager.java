@@ -0,0 +1,220 @@
+package com.project.back_end.services;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.models.DoctorSlots;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Short-lived holds on a (doctor, slot) while a patient completes a booking.
+ * <p>
+ * A hold makes the slot unavailable to every other patient for {@code slot-holds.ttl-seconds}; holding again
+ * refreshes it, and booking the slot consumes it. Holds live only in memory, keyed like the slot reservations of
+ * {@link AvailabilityEngine}. Expiry is driven by a {@link HashedTimingWheel}, and lookups also compare the expiry
+ * time, so a hold never outlives its TTL even though the wheel fires up to one tick late.
+ */
+@Component
+public class SlotHoldManager {
+
+    private final AvailabilityEngine availabilityEngine;
+    private final long ttlMillis;
+    private final int maxPerPatient;
+    private final HashedTimingWheel wheel;
+
+    private final ConcurrentHashMap<Long, Hold> holds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicInteger> holdsPerPatient = new ConcurrentHashMap<>();
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder consumed = new LongAdder();
+
+    public SlotHoldManager(AvailabilityEngine availabilityEngine,
+                           @Value("${slot-holds.ttl-seconds:120}") long ttlSeconds,
+                           @Value("${slot-holds.max-per-patient:3}") int maxPerPatient) {
+        this.availabilityEngine = availabilityEngine;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.maxPerPatient = maxPerPatient;
+        // 512 buckets of 250 ms: one revolution covers a bit over two minutes
+        this.wheel = new HashedTimingWheel("slot-hold-expiry", 250, TimeUnit.MILLISECONDS, 512);
+    }
+
+    @PreDestroy
+    public void close() {
+        wheel.close();
+    }
+
+    /**
+     * Holds the slot for the patient, or refreshes the patient's own hold. Returns {@code null} if the slot is
+     * booked or held by another patient.
+     *
+     * @throws IllegalStateException if the patient already holds {@code slot-holds.max-per-patient} other slots
+     */
+    public Hold hold(long doctorId, LocalDateTime time, long patientId) {
+        if (availabilityEngine.isBooked(doctorId, time)) {
+            return null;
+        }
+        long key = AvailabilityEngine.slotKey(doctorId, time);
+        long now = System.currentTimeMillis();
+        Hold hold = new Hold(doctorId, time, patientId, now + ttlMillis);
+        Hold current = holds.compute(key, (k, existing) -> {
+            boolean live = existing != null && !existing.isExpired(now);
+            if (live && existing.patientId != patientId) {
+                return existing;
+            }
+            if (!live || existing.patientId != patientId) {
+                AtomicInteger count = holdsPerPatient.computeIfAbsent(patientId, id -> new AtomicInteger());
+                if (count.incrementAndGet() > maxPerPatient) {
+                    count.decrementAndGet();
+                    throw new IllegalStateException("At most " + maxPerPatient + " slots can be held at once");
+                }
+                if (existing != null) {
+                    // an expired hold the wheel has not removed yet
+                    forget(existing);
+                }
+            }
+            if (existing != null) {
+                existing.cancelExpiry();
+            }
+            return hold;
+        });
+        if (current != hold) {
+            return null;
+        }
+        created.increment();
+        hold.expiry = wheel.schedule(() -> expire(key, hold), ttlMillis, TimeUnit.MILLISECONDS);
+        return hold;
+    }
+
+    /**
+     * Drops the patient's hold on the slot, if any. Also used once the holder has booked the slot.
+     */
+    public boolean release(long doctorId, LocalDateTime time, long patientId) {
+        long key = AvailabilityEngine.slotKey(doctorId, time);
+        Hold hold = holds.get(key);
+        if (hold == null || hold.patientId != patientId || !holds.remove(key, hold)) {
+            return false;
+        }
+        hold.cancelExpiry();
+        forget(hold);
+        return true;
+    }
+
+    /**
+     * Called after the slot was booked: the holder's hold is no longer needed.
+     */
+    public void consume(long doctorId, LocalDateTime time, Long patientId) {
+        if (patientId != null && !holds.isEmpty() && release(doctorId, time, patientId)) {
+            consumed.increment();
+        }
+    }
+
+    /**
+     * True if someone other than {@code patientId} holds the slot. A {@code null} patient (a doctor or admin
+     * looking at the schedule) counts as someone else for every hold.
+     */
+    public boolean isHeldByOther(long doctorId, LocalDateTime time, Long patientId) {
+        if (holds.isEmpty()) {
+            return false;
+        }
+        Hold hold = holds.get(AvailabilityEngine.slotKey(doctorId, time));
+        return hold != null && !hold.isExpired(System.currentTimeMillis())
+                && (patientId == null || hold.patientId != patientId);
+    }
+
+    public boolean hasHolds() {
+        return !holds.isEmpty();
+    }
+
+    /**
+     * The slot labels that are not held by anyone but {@code patientId}.
+     */
+    public List<String> withoutHeldSlots(long doctorId, LocalDate date, List<String> slots, Long patientId) {
+        if (holds.isEmpty()) {
+            return slots;
+        }
+        List<String> available = new ArrayList<>(slots.size());
+        for (String slot : slots) {
+            int minute = DoctorSlots.parseStartMinute(slot);
+            if (minute < 0 || !isHeldByOther(doctorId, date.atTime(minute / 60, minute % 60), patientId)) {
+                available.add(slot);
+            }
+        }
+        return available;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("active", holds.size());
+        stats.put("created", created.sum());
+        stats.put("expired", expired.sum());
+        stats.put("consumed", consumed.sum());
+        return stats;
+    }
+
+    private void expire(long key, Hold hold) {
+        if (holds.remove(key, hold)) {
+            forget(hold);
+            expired.increment();
+        }
+    }
+
+    private void forget(Hold hold) {
+        holdsPerPatient.computeIfPresent(hold.patientId, (id, count) -> count.decrementAndGet() <= 0 ? null : count);
+    }
+
+    /**
+     * One patient's hold on one slot.
+     */
+    public static final class Hold {
+        private final long doctorId;
+        private final LocalDateTime appointmentTime;
+        private final long patientId;
+        private final long expiresAtMillis;
+        private volatile HashedTimingWheel.Timeout expiry;
+
+        private Hold(long doctorId, LocalDateTime appointmentTime, long patientId, long expiresAtMillis) {
+            this.doctorId = doctorId;
+            this.appointmentTime = appointmentTime;
+            this.patientId = patientId;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public long getDoctorId() {
+            return doctorId;
+        }
+
+        public LocalDateTime getAppointmentTime() {
+            return appointmentTime;
+        }
+
+        public LocalDateTime getExpiresAt() {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAtMillis), ZoneId.systemDefault());
+        }
+
+        private boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+
+        private void cancelExpiry() {
+            HashedTimingWheel.Timeout timeout = expiry;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+    }
+}
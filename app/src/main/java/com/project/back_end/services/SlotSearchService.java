@@ -0,0 +1,237 @@
+package com.project.back_end.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.springframework.stereotype.Service;
+
+import com.project.back_end.DTO.AvailableSlotDTO;
+import com.project.back_end.DTO.BookedSlot;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSlots;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+
+/**
+ * "First available slot" search across all doctors of a specialty.
+ * <p>
+ * Every candidate doctor gets a cursor that walks its open slots in chronological order (the precomputed
+ * {@link DoctorSlots} per day, minus booked quarter hours). The cursors are merged through a priority queue keyed by
+ * the start of their next open slot, so the K earliest slots come out after K polls, whatever the number of doctors.
+ * <p>
+ * Bookings are read with one projection query per chunk of days for the whole specialty. Chunks double in size
+ * (1, 2, 4, ... days) and are only read once a cursor actually reaches them, so a search that is satisfied today
+ * never reads the rest of the horizon.
+ */
+@Service
+public class SlotSearchService {
+
+    public static final int MAX_HORIZON_DAYS = 60;
+    public static final int MAX_RESULTS = 100;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final DoctorDirectory doctorDirectory;
+    private final SlotHoldManager slotHolds;
+
+    public SlotSearchService(AppointmentRepository appointmentRepository, DoctorRepository doctorRepository,
+                             DoctorDirectory doctorDirectory, SlotHoldManager slotHolds) {
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.doctorDirectory = doctorDirectory;
+        this.slotHolds = slotHolds;
+    }
+
+    /**
+     * The {@code limit} earliest open slots of doctors with the given specialty, from now until {@code horizonDays}
+     * days ahead (today included), optionally restricted to a time window ("AM", "PM" or "HH:mm-HH:mm").
+     * Ties are broken by doctor id. Slots held by a patient other than {@code patientId} (null for doctors and admins)
+     * are not offered.
+     *
+     * @throws IllegalArgumentException if {@code time} is given but is not a valid time filter
+     */
+    public List<AvailableSlotDTO> findFirstAvailable(String specialty, String time, int horizonDays, int limit, Long patientId) {
+        DoctorSlots.Window window = null;
+        if (time != null && !time.isBlank() && !"null".equals(time)) {
+            window = DoctorSlots.Window.parse(time);
+            if (window == null) {
+                throw new IllegalArgumentException("Invalid time filter: " + time);
+            }
+        }
+        int days = Math.max(1, Math.min(horizonDays, MAX_HORIZON_DAYS));
+        int k = Math.max(1, Math.min(limit, MAX_RESULTS));
+
+        Search search = new Search(specialty, LocalDateTime.now(), days, window, patientId);
+        PriorityQueue<Cursor> queue = new PriorityQueue<>();
+        for (Doctor doctor : candidates(specialty, window)) {
+            Cursor cursor = new Cursor(search, doctor);
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+
+        List<AvailableSlotDTO> results = new ArrayList<>(k);
+        while (results.size() < k && !queue.isEmpty()) {
+            Cursor cursor = queue.poll();
+            if (cursor.parked) {
+                // the earliest remaining candidate lies in a chunk that is not read yet
+                search.ensureLoaded(cursor.day);
+            } else {
+                results.add(cursor.toSlot());
+                cursor.slot++;
+            }
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+        return results;
+    }
+
+    private List<Doctor> candidates(String specialty, DoctorSlots.Window window) {
+        List<Doctor> doctors = doctorDirectory.isReady()
+                ? doctorDirectory.search(null, specialty)
+                : doctorRepository.findBySpecialtyIgnoreCase(specialty);
+        List<Doctor> candidates = new ArrayList<>(doctors.size());
+        for (Doctor doctor : doctors) {
+            DoctorSlots slots = doctor.getSlots();
+            if (!slots.isEmpty() && (window == null || slots.matches(window))) {
+                candidates.add(doctor);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Shared state of one search: the horizon and the booked bitmaps read so far.
+     */
+    private final class Search {
+        private final String specialty;
+        private final LocalDate today;
+        private final int nowMinute;
+        private final int days;
+        private final DoctorSlots.Window window;
+        private final Long patientId;
+        private final Map<Long, SlotBitmap> booked = new HashMap<>();
+        // days [0, loadedUntil) of the horizon have been read
+        private int loadedUntil;
+
+        private Search(String specialty, LocalDateTime now, int days, DoctorSlots.Window window, Long patientId) {
+            this.specialty = specialty;
+            this.today = now.toLocalDate();
+            this.nowMinute = now.getHour() * 60 + now.getMinute();
+            this.days = days;
+            this.window = window;
+            this.patientId = patientId;
+        }
+
+        private void ensureLoaded(int day) {
+            while (loadedUntil <= day && loadedUntil < days) {
+                int end = Math.min(days, loadedUntil + Math.max(1, loadedUntil));
+                List<BookedSlot> rows = appointmentRepository.findBookedSlotsBySpecialtyBetween(specialty,
+                        today.plusDays(loadedUntil).atStartOfDay(), today.plusDays(end).atStartOfDay());
+                for (BookedSlot row : rows) {
+                    LocalDateTime time = row.getAppointmentTime();
+                    booked.computeIfAbsent(AvailabilityEngine.key(row.getDoctorId(), time.toLocalDate().toEpochDay()),
+                                    k -> new SlotBitmap())
+                            .set(SlotBitmap.quarterOf(time.getHour() * 60 + time.getMinute()));
+                }
+                loadedUntil = end;
+            }
+        }
+
+        private boolean isBooked(long doctorId, int day, int minute) {
+            SlotBitmap bitmap = booked.get(AvailabilityEngine.key(doctorId, today.toEpochDay() + day));
+            if (bitmap != null && bitmap.isSet(SlotBitmap.quarterOf(minute))) {
+                return true;
+            }
+            // slots held by another patient who is completing a booking are not offered
+            return slotHolds.hasHolds() && slotHolds.isHeldByOther(doctorId, today.plusDays(day).atTime(minute / 60, minute % 60), patientId);
+        }
+    }
+
+    /**
+     * Position of one doctor in the merge: the next open slot at or after ({@code day}, {@code slot}).
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+        private final Search search;
+        private final Doctor doctor;
+        private final long doctorId;
+        private final DoctorSlots slots;
+        // slot indexes [firstSlot, endSlot) fall inside the time window
+        private final int firstSlot;
+        private final int endSlot;
+
+        private int day;
+        private int slot;
+        // waiting for day `day` to be read, ordered at the very start of that day
+        private boolean parked;
+        private long sortKey;
+
+        private Cursor(Search search, Doctor doctor) {
+            this.search = search;
+            this.doctor = doctor;
+            this.doctorId = doctor.getId();
+            this.slots = doctor.getSlots();
+            int first = 0;
+            int end = slots.size();
+            if (search.window != null) {
+                while (first < end && slots.startMinute(first) < search.window.fromMinute()) {
+                    first++;
+                }
+                while (end > first && slots.startMinute(end - 1) >= search.window.toMinute()) {
+                    end--;
+                }
+            }
+            this.firstSlot = first;
+            this.endSlot = end;
+            this.slot = first;
+        }
+
+        /**
+         * Moves to the next open slot, or parks at the first day that has not been read yet.
+         * Returns {@code false} once the horizon is exhausted.
+         */
+        private boolean advance() {
+            parked = false;
+            while (day < search.days) {
+                if (day >= search.loadedUntil) {
+                    parked = true;
+                    sortKey = (long) day * MINUTES_PER_DAY * 2;
+                    return true;
+                }
+                for (; slot < endSlot; slot++) {
+                    int minute = slots.startMinute(slot);
+                    if (day == 0 && minute <= search.nowMinute) {
+                        continue;
+                    }
+                    if (!search.isBooked(doctorId, day, minute)) {
+                        sortKey = ((long) day * MINUTES_PER_DAY + minute) * 2 + 1;
+                        return true;
+                    }
+                }
+                day++;
+                slot = firstSlot;
+            }
+            return false;
+        }
+
+        private AvailableSlotDTO toSlot() {
+            int minute = slots.startMinute(slot);
+            LocalDateTime start = search.today.plusDays(day).atTime(minute / 60, minute % 60);
+            return new AvailableSlotDTO(doctorId, doctor.getName(), doctor.getSpecialty(), start, slots.label(slot));
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            int byTime = Long.compare(sortKey, other.sortKey);
+            return byTime != 0 ? byTime : Long.compare(doctorId, other.doctorId);
+        }
+    }
+}
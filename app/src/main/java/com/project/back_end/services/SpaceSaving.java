@@ -0,0 +1,198 @@
+package com.project.back_end.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Space-Saving heavy hitters summary (Metwally, Agrawal and El Abbadi) with a fixed number of counters.
+ * <p>
+ * A key that has a counter is incremented; a new key takes over the smallest counter, adding to its count and
+ * remembering the old count as its possible overestimate ({@code error}). With {@code capacity} counters and
+ * {@code n} offers every count overestimates the true count by at most {@code n / capacity} ({@code count - error}
+ * never overestimates), and every key seen more than {@code n / capacity} times has a counter. The counters form an
+ * indexed min-heap, so an offer costs O(log capacity) and memory does not grow with the number of keys.
+ * Not thread-safe.
+ */
+public final class SpaceSaving<K> {
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters;
+    private final Counter<K>[] heap;
+    private int size;
+    private long offered;
+
+    @SuppressWarnings("unchecked")
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = (Counter<K>[]) new Counter[capacity];
+    }
+
+    public void offer(K key) {
+        offer(key, 1);
+    }
+
+    /**
+     * Counts {@code key} {@code weight} times; the weight must be positive, since counts may only grow.
+     */
+    public void offer(K key, long weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("weight must be positive");
+        }
+        offered += weight;
+        Counter<K> counter = counters.get(key);
+        if (counter == null) {
+            if (size < capacity) {
+                // a new counter starts at 0, below every other: it goes to the top, then down once counted
+                counter = new Counter<>(key, 0, size);
+                heap[size++] = counter;
+                siftUp(counter.index);
+            } else {
+                // the smallest counter goes to the new key, which may have been seen that often already
+                counter = heap[0];
+                counters.remove(counter.key);
+                counter.key = key;
+                counter.error = counter.count;
+            }
+            counters.put(key, counter);
+        }
+        counter.count += weight;
+        siftDown(counter.index);
+    }
+
+    /**
+     * The {@code k} largest counters, largest first.
+     */
+    public List<Entry<K>> top(int k) {
+        List<Entry<K>> entries = new ArrayList<>(size);
+        forEach(entries::add);
+        entries.sort(Entry.BY_COUNT);
+        return entries.subList(0, Math.min(k, entries.size()));
+    }
+
+    public void forEach(Consumer<Entry<K>> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(new Entry<>(heap[i].key, heap[i].count, heap[i].error));
+        }
+    }
+
+    /**
+     * The smallest count, i.e. the most a key without a counter can have been seen; 0 while not all counters are used.
+     */
+    public long min() {
+        return size < capacity ? 0 : heap[0].count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long offered() {
+        return offered;
+    }
+
+    public void clear() {
+        counters.clear();
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+        offered = 0;
+    }
+
+    private void siftUp(int index) {
+        Counter<K> counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heap[index].index = index;
+            index = parent;
+        }
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    // counts only grow, so a counted counter can only move down
+    private void siftDown(int index) {
+        Counter<K> counter = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (heap[child].count >= counter.count) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].index = index;
+            index = child;
+        }
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    private static final class Counter<K> {
+        private K key;
+        private long count;
+        private long error;
+        private int index;
+
+        Counter(K key, long count, int index) {
+            this.key = key;
+            this.count = count;
+            this.index = index;
+        }
+    }
+
+    /**
+     * A key's estimated count and how much of it may be overestimated.
+     */
+    public static final class Entry<K> {
+        static final Comparator<Entry<?>> BY_COUNT = Comparator.comparingLong((Entry<?> entry) -> entry.count).reversed();
+
+        private final K key;
+        private final long count;
+        private final long error;
+
+        public Entry(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        /**
+         * A lower bound of the true count.
+         */
+        public long getGuaranteed() {
+            return count - error;
+        }
+    }
+}
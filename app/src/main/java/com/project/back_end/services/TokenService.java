@@ -1,35 +1,73 @@
 package com.project.back_end.services;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.project.back_end.DTO.AuthPrincipal;
+import com.project.back_end.models.Admin;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AdminRepository;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
 import java.util.Locale;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 @Component
 public class TokenService {
-    @Autowired
-    private AdminRepository adminRepository;
-    @Autowired
-    private DoctorRepository doctorRepository;
-    @Autowired
-    private PatientRepository patientRepository;
-    
-    @Value("${jwt.secret}")
-    private String jwtSecret;
-    
-    
+    public static final String ROLE_CLAIM = "role";
+    public static final String ID_CLAIM = "uid";
+
+    private static final long TOKEN_TTL_MILLIS = 7L * 24 * 60 * 60 * 1000; // 7 days
+
+    private final AdminRepository adminRepository;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final TokenCache tokenCache;
+
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+
+    // "role:id" keys of principals whose tokens must be rejected (e.g. a deleted doctor), kept for a token lifetime.
+    private final Cache<String, Boolean> revokedPrincipals;
+    // Short-lived memo of "does this principal still exist" so the DB is asked at most once per window; null when disabled.
+    private final Cache<String, Boolean> existenceChecks;
+
+    public TokenService(AdminRepository adminRepository,
+                        DoctorRepository doctorRepository,
+                        PatientRepository patientRepository,
+                        TokenCache tokenCache,
+                        @Value("${jwt.secret}") String jwtSecret,
+                        @Value("${jwt.revocation-check-seconds:60}") long revocationCheckSeconds) {
+        this.adminRepository = adminRepository;
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+        this.tokenCache = tokenCache;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        this.revokedPrincipals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(TOKEN_TTL_MILLIS))
+                .build();
+        this.existenceChecks = revocationCheckSeconds > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(100_000)
+                        .expireAfterWrite(Duration.ofSeconds(revocationCheckSeconds))
+                        .build()
+                : null;
+    }
+
 // 1. **@Component Annotation**
 // The @Component annotation marks this class as a Spring component, meaning Spring will manage it as a bean within its application context.
 // This allows the class to be injected into other Spring-managed components (like services or controllers) where it's needed.
@@ -43,9 +81,21 @@ public class TokenService {
 // This method retrieves the HMAC SHA key used to sign JWT tokens.
 // It uses the `jwt.secret` value, which is provided from an external source (like application properties).
 // The `Keys.hmacShaKeyFor()` method converts the secret key string into a valid `SecretKey` for signing and verification of JWTs.
+// The key and the parser built from it are created once in the constructor; deriving them per call showed up on every authenticated request.
 
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signingKey;
+    }
+
+// Verifies the token and returns its claims. Tokens that were already verified are served from `TokenCache`
+// until their expiration, so repeated calls for the same request (or the same session) skip the HMAC check.
+    private Claims parseClaims(String token) {
+        Claims claims = tokenCache.get(token);
+        if (claims == null) {
+            claims = jwtParser.parseSignedClaims(token).getPayload();
+            tokenCache.put(token, claims);
+        }
+        return claims;
     }
 
 // 4. **generateToken Method**
@@ -60,7 +110,21 @@ public class TokenService {
         return Jwts.builder()
                 .subject(email)
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + 7 * 24 * 60 * 60 * 1000)) // 7 days
+                .expiration(new Date(System.currentTimeMillis() + TOKEN_TTL_MILLIS))
+                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+// 4b. **generateToken with role and id**
+// Same as above, but the role (`admin`, `doctor` or `patient`) and the primary key of the user are signed into the
+// `role` and `uid` claims. `validateToken` can then authorize these tokens from the claims alone, without a repository lookup.
+    public String generateToken(String subject, String role, long id) {
+        return Jwts.builder()
+                .subject(subject)
+                .claim(ROLE_CLAIM, role.toLowerCase(Locale.ROOT))
+                .claim(ID_CLAIM, id)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + TOKEN_TTL_MILLIS))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
@@ -72,12 +136,7 @@ public class TokenService {
 // This method allows the application to retrieve the user's identity (email) from the token for further use.
     public String extractEmail(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.getSubject();
+            return parseClaims(token).getSubject();
         } catch (Exception e) {
             return null;
         }
@@ -91,16 +150,27 @@ public class TokenService {
 // - If the role or user does not exist, it returns false, indicating the token is invalid.
 // - The method gracefully handles any errors by returning false if the token is invalid or an exception occurs.
 // This ensures secure access control based on the user's role and their existence in the system.
+// - Tokens carrying `role`/`uid` claims are authorized from the claims alone. The only extra checks are the in-memory
+//   revocation list and, when `jwt.revocation-check-seconds` is set, an existence check memoized for that many seconds.
+// - Older tokens without these claims fall back to the repository lookup described above.
     public boolean validateToken(String token, String role) {
         try {
-            String email = extractEmail(token);
+            Claims claims = parseClaims(token);
+            String requestedRole = role.toLowerCase(Locale.ROOT);
+            String claimedRole = claims.get(ROLE_CLAIM, String.class);
+            Long id = claims.get(ID_CLAIM, Long.class);
+            if (claimedRole != null && id != null) {
+                return claimedRole.equals(requestedRole) && !isRevoked(claimedRole, id);
+            }
+
+            String email = claims.getSubject();
             if (email == null) {
                 return false;
             }
-            
-            switch (role.toLowerCase(Locale.ROOT)) {
+
+            switch (requestedRole) {
                 case "admin":
-                    if (adminRepository.findByUsername(email) !=null) return true;
+                    return adminRepository.findByUsername(email) != null;
                 case "doctor":
                     return doctorRepository.findByEmail(email)!=null;
                 case "patient":
@@ -118,15 +188,122 @@ public class TokenService {
      */
     public boolean isTokenValid(String token) {
         try {
-            Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            parseClaims(token);
             return true;
         } catch (Exception e) {
             return false;
         }
     }
+
+    /**
+     * Resolves the caller behind a token for the given role, or returns {@code null} if the token is not valid for it.
+     * Claims-based tokens cost no query: the entity is returned as a JPA reference built from the {@code uid} claim.
+     * Older tokens are resolved with one lookup by email.
+     */
+    public AuthPrincipal resolvePrincipal(String token, String role) {
+        try {
+            Claims claims = parseClaims(token);
+            String requestedRole = role.toLowerCase(Locale.ROOT);
+            String claimedRole = claims.get(ROLE_CLAIM, String.class);
+            Long id = claims.get(ID_CLAIM, Long.class);
+            if (claimedRole != null && id != null) {
+                if (!claimedRole.equals(requestedRole) || isRevoked(claimedRole, id)) {
+                    return null;
+                }
+                return new AuthPrincipal(requestedRole, id, claims.getSubject(), getReference(requestedRole, id));
+            }
+
+            String email = claims.getSubject();
+            if (email == null) {
+                return null;
+            }
+            switch (requestedRole) {
+                case "admin": {
+                    Admin admin = adminRepository.findByUsername(email);
+                    return admin == null ? null : new AuthPrincipal(requestedRole, admin.getId(), email, admin);
+                }
+                case "doctor": {
+                    Doctor doctor = doctorRepository.findByEmail(email);
+                    return doctor == null ? null : new AuthPrincipal(requestedRole, doctor.getId(), email, doctor);
+                }
+                case "patient": {
+                    Patient patient = patientRepository.findByEmail(email);
+                    return patient == null ? null : new AuthPrincipal(requestedRole, patient.getId(), email, patient);
+                }
+                default:
+                    return null;
+            }
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private Object getReference(String role, long id) {
+        switch (role) {
+            case "admin":
+                return adminRepository.getReferenceById(id);
+            case "doctor":
+                return doctorRepository.getReferenceById(id);
+            case "patient":
+                return patientRepository.getReferenceById(id);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Rejects every token issued for the given principal, e.g. after the account is deleted.
+     */
+    public void revoke(String role, long id) {
+        String key = principalKey(role.toLowerCase(Locale.ROOT), id);
+        revokedPrincipals.put(key, Boolean.TRUE);
+        if (existenceChecks != null) {
+            existenceChecks.invalidate(key);
+        }
+    }
+
+    /**
+     * Lifts a {@link #revoke}, e.g. when deleting the account failed and it is still there.
+     */
+    public void restore(String role, long id) {
+        String key = principalKey(role.toLowerCase(Locale.ROOT), id);
+        revokedPrincipals.invalidate(key);
+        if (existenceChecks != null) {
+            existenceChecks.invalidate(key);
+        }
+    }
+
+    private boolean isRevoked(String role, long id) {
+        String key = principalKey(role, id);
+        if (revokedPrincipals.getIfPresent(key) != null) {
+            return true;
+        }
+        if (existenceChecks == null) {
+            return false;
+        }
+        return !existenceChecks.get(key, k -> principalExists(role, id));
+    }
+
+    private boolean principalExists(String role, long id) {
+        switch (role) {
+            case "admin":
+                return adminRepository.existsById(id);
+            case "doctor":
+                return doctorRepository.existsById(id);
+            case "patient":
+                return patientRepository.existsById(id);
+            default:
+                return false;
+        }
+    }
+
+    private static String principalKey(String role, long id) {
+        return role + ":" + id;
+    }
+
+    public TokenCache getTokenCache() {
+        return tokenCache;
+    }
 }
 
 
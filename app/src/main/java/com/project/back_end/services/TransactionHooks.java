@@ -0,0 +1,65 @@
+package com.project.back_end.services;
+
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers updates of in-memory structures (indexes, caches) until the surrounding transaction has committed,
+ * so a rolled back write never becomes visible in memory. Outside a transaction the action runs immediately.
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs {@code onCommit} if the surrounding transaction commits, then {@code always} once it has completed,
+     * whether it committed or rolled back. Outside a transaction both run immediately.
+     */
+    public static void afterCompletion(Runnable onCommit, Runnable always) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                onCommit.run();
+            } finally {
+                always.run();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        onCommit.run();
+                    }
+                } finally {
+                    always.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Marks the current transaction for rollback, for service methods that report a failure through a result code
+     * instead of throwing. Does nothing outside a transaction.
+     */
+    public static void setRollbackOnly() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        }
+    }
+}
@@ -50,13 +50,20 @@
   When the page is fully loaded (DOMContentLoaded):
     - Call renderContent() (assumes it sets up the UI layout)
     - Call loadAppointments() to display today's appointments by default
+
+  Function: watchSelectedDate
+  Purpose: Keep the table current without polling
+    - Opens the server-sent event feed for selectedDate (closing the previous one)
+    - Every change pushed for that day reloads the appointments, a burst of changes only once
 */
-import { getAllAppointments } from "./services/appointmentRecordService.js";
+import { getAllAppointments, watchAppointments } from "./services/appointmentRecordService.js";
 import { createPatientRow } from "./components/patientRows.js";
 const tableBody = document.getElementById("patientTableBody");
 let selectedDate = new Date().toISOString().split('T')[0];
 let token = localStorage.getItem("token");
 let patientName = null;
+let feed = null;
+let reloadTimer = null;
 
 document.getElementById("searchBar").addEventListener("input", (e) => {
   const value = e.target.value.trim();
@@ -68,12 +75,14 @@ document.getElementById("searchBar").addEventListener("input", (e) => {
 document.getElementById("todayButton").addEventListener("click", () => {
   selectedDate = new Date().toISOString().split('T')[0];
   document.getElementById("datePicker").value = selectedDate; // Update date picker too
+  watchSelectedDate();
   loadAppointments();
 });
 
 // Event Listener: Date Picker
 document.getElementById("datePicker").addEventListener("change", (e) => {
   selectedDate = e.target.value;
+  watchSelectedDate();
   loadAppointments();
 });
 
@@ -108,7 +117,18 @@ async function loadAppointments() {
   }
 }
 
+function watchSelectedDate() {
+  if (feed) {
+    feed.close();
+  }
+  feed = watchAppointments(selectedDate, token, () => {
+    clearTimeout(reloadTimer);
+    reloadTimer = setTimeout(loadAppointments, 250);
+  });
+}
+
 window.addEventListener("DOMContentLoaded", () => {
   renderContent();
+  watchSelectedDate();
   loadAppointments();
 });
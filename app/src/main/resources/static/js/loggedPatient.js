@@ -2,7 +2,7 @@
 import { getDoctors } from './services/doctorServices.js';
 import { createDoctorCard } from './components/doctorCard.js';
 import { filterDoctors } from './services/doctorServices.js';
-import { bookAppointment } from './services/appointmentRecordService.js';
+import { bookAppointment, holdSlot, releaseHold } from './services/appointmentRecordService.js';
 
 
 document.addEventListener("DOMContentLoaded", () => {
@@ -59,6 +59,31 @@ export function showBookingOverlay(e, doctor, patient) {
 
   setTimeout(() => modalApp.classList.add("active"), 600);
 
+  // hold the picked slot so nobody else can take it while the form is open
+  let heldTime = null;
+  const holdPickedSlot = async () => {
+    const date = modalApp.querySelector("#appointment-date").value;
+    const time = modalApp.querySelector("#appointment-time").value;
+    const token = localStorage.getItem("token");
+    if (heldTime) {
+      releaseHold(doctor.id, heldTime, token);
+      heldTime = null;
+    }
+    if (!date || !time) {
+      return;
+    }
+    const appointmentTime = `${date}T${time.split('-')[0]}:00`;
+    const { success, message } = await holdSlot(doctor.id, appointmentTime, token);
+    if (success) {
+      heldTime = appointmentTime;
+    } else {
+      alert("❌ " + message);
+      modalApp.querySelector("#appointment-time").value = "";
+    }
+  };
+  modalApp.querySelector("#appointment-date").addEventListener("change", holdPickedSlot);
+  modalApp.querySelector("#appointment-time").addEventListener("change", holdPickedSlot);
+
   modalApp.querySelector(".confirm-booking").addEventListener("click", async () => {
     const date = modalApp.querySelector("#appointment-date").value;
     const time = modalApp.querySelector("#appointment-time").value;
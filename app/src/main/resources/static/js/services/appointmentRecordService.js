@@ -12,6 +12,21 @@ export async function getAllAppointments(date, patientName, token) {
   return await response.json(); 
 }
 
+// Live updates for the doctor dashboard: calls onChange for every change to the doctor's appointments on `date`
+// and after a reconnect (changes may have been missed meanwhile). Returns the EventSource; close() it to stop.
+export function watchAppointments(date, token, onChange) {
+  const source = new EventSource(`${APPOINTMENT_API}/feed/${date}/${token}`);
+  let connected = false;
+  source.addEventListener("ready", () => {
+    if (connected) {
+      onChange(null);
+    }
+    connected = true;
+  });
+  source.addEventListener("appointment", (e) => onChange(JSON.parse(e.data)));
+  return source;
+}
+
 export async function bookAppointment(appointment, token) {
   try {
     const response = await fetch(`${APPOINTMENT_API}/${token}`, {
@@ -23,9 +38,12 @@ export async function bookAppointment(appointment, token) {
     });
 
     const data = await response.json();
+    if (response.status === 202 && data.ticket) {
+      return await waitForBooking(data.ticket, token);
+    }
     return {
       success: response.ok,
-      message: data.message || "Something went wrong"
+      message: data.message || data.error || "Something went wrong"
     };
   } catch (error) {
     console.error("Error while booking appointment:", error);
@@ -36,6 +54,57 @@ export async function bookAppointment(appointment, token) {
   }
 }
 
+// Polls a booking accepted by the booking pipeline (202 + ticket) until it is resolved.
+async function waitForBooking(ticketId, token) {
+  for (let attempt = 0; attempt < 60; attempt++) {
+    await new Promise(resolve => setTimeout(resolve, 250));
+    const response = await fetch(`${APPOINTMENT_API}/ticket/${ticketId}/${token}`);
+    if (!response.ok) {
+      break;
+    }
+    const { ticket } = await response.json();
+    if (ticket.status === "BOOKED") {
+      return { success: true, message: "Appointment booked successfully" };
+    }
+    if (ticket.status === "SLOT_TAKEN") {
+      return { success: false, message: "This slot has just been booked. Please choose another time." };
+    }
+    if (ticket.status === "FAILED") {
+      return { success: false, message: "Failed to book appointment. Please try again." };
+    }
+  }
+  return { success: false, message: "Your booking is still being processed. Please check your appointments shortly." };
+}
+
+// Keeps a slot for this patient for a couple of minutes while the booking form is open.
+export async function holdSlot(doctorId, appointmentTime, token) {
+  try {
+    const response = await fetch(`${APPOINTMENT_API}/hold/${token}`, {
+      method: "POST",
+      headers: {
+        "Content-Type": "application/json"
+      },
+      body: JSON.stringify({ doctorId, appointmentTime })
+    });
+    const data = await response.json();
+    return {
+      success: response.ok,
+      message: data.message || data.error || "Something went wrong"
+    };
+  } catch (error) {
+    console.error("Error while holding slot:", error);
+    return { success: false, message: "Network error. Please try again later." };
+  }
+}
+
+export async function releaseHold(doctorId, appointmentTime, token) {
+  try {
+    await fetch(`${APPOINTMENT_API}/hold/${doctorId}/${appointmentTime}/${token}`, { method: "DELETE" });
+  } catch (error) {
+    console.error("Error while releasing hold:", error);
+  }
+}
+
 export async function updateAppointment(appointment, token) {
   try {
     const response = await fetch(`${APPOINTMENT_API}/${token}`, {
@@ -66,6 +66,19 @@ export async function filterDoctors(name, time, specialty) {
   }
 }
 
+// Availability of one doctor for `days` consecutive days starting at `date` (YYYY-MM-DD), in a single request.
+// Resolves to an object keyed by date, e.g. { "2025-04-15": ["09:00-10:00", ...], ... }.
+export async function getDoctorAvailabilityRange(user, doctorId, date, days, token) {
+  try {
+    const response = await fetch(`${DOCTOR_API}/availability/${user}/${doctorId}/${date}/${days}/${token}`);
+    const data = await response.json();
+    return response.ok ? data.availability || {} : {};
+  } catch (error) {
+    console.error('Error fetching doctor availability:', error);
+    return {};
+  }
+}
+
 /*
   Import the base API URL from the config file
   Define a constant DOCTOR_API to hold the full endpoint for doctor-related actions
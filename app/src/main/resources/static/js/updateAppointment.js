@@ -1,5 +1,5 @@
 // updateAppointment.js
-import { updateAppointment } from "../js/services/appointmentRecordService.js";
+import { updateAppointment, holdSlot, releaseHold } from "../js/services/appointmentRecordService.js";
 import { getDoctors } from "../js/services/doctorServices.js";
 document.addEventListener("DOMContentLoaded", initializePage);
 
@@ -46,6 +46,30 @@ async function initializePage() {
         timeSelect.appendChild(option);
       });
 
+      // Hold a newly picked slot while the patient confirms the change
+      let heldTime = null;
+      const holdPickedSlot = async () => {
+        const date = document.getElementById("appointmentDate").value;
+        const time = document.getElementById("appointmentTime").value;
+        if (heldTime) {
+          releaseHold(doctor.id, heldTime, token);
+          heldTime = null;
+        }
+        if (!date || !time) {
+          return;
+        }
+        const appointmentTime = `${date}T${time.split('-')[0]}:00`;
+        const { success, message } = await holdSlot(doctor.id, appointmentTime, token);
+        if (success) {
+          heldTime = appointmentTime;
+        } else {
+          alert("❌ " + message);
+          timeSelect.value = "";
+        }
+      };
+      document.getElementById("appointmentDate").addEventListener("change", holdPickedSlot);
+      timeSelect.addEventListener("change", holdPickedSlot);
+
       // Handle form submission for updating the appointment
       document.getElementById("updateAppointmentForm").addEventListener("submit", async (e) => {
         e.preventDefault(); // Prevent default form submission
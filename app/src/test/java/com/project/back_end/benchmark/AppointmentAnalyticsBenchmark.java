@@ -0,0 +1,92 @@
+package com.project.back_end.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.project.back_end.services.AppointmentSnapshot;
+
+/**
+ * One admin analytics query (counts by specialty, status, hour, weekday and doctor over a year) on an
+ * {@link AppointmentSnapshot}: a single-threaded pass versus the fork-join pass {@code AppointmentAnalyticsService} runs.
+ * Run with {@code main} from the test classpath (e.g. from the IDE after {@code mvn test-compile}); the 10M case needs
+ * about 1 GB of heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AppointmentAnalyticsBenchmark {
+
+    private static final String[] SPECIALTIES = {"Cardiologist", "Dermatologist", "Neurologist", "Pediatrician", "Orthopedic", "Gynecologist"};
+
+    @Param({"1000000", "10000000"})
+    private int appointmentCount;
+
+    private AppointmentSnapshot snapshot;
+    private ForkJoinPool pool;
+    private int fromMinute;
+    private int toMinute;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int doctorCount = 2000;
+        AppointmentSnapshot.Builder builder = AppointmentSnapshot.builder(appointmentCount);
+        for (int d = 1; d <= doctorCount; d++) {
+            builder.addDoctor(d, SPECIALTIES[d % SPECIALTIES.length], 4 + random.nextInt(6));
+        }
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        int first = AppointmentSnapshot.epochMinute(start);
+        // 15 months of appointments on the hour, 8:00 to 17:00
+        for (int i = 0; i < appointmentCount; i++) {
+            int day = random.nextInt(455);
+            int hour = 8 + random.nextInt(10);
+            builder.add(1 + random.nextInt(doctorCount), first + day * 24 * 60 + hour * 60, random.nextInt(4));
+        }
+        snapshot = builder.build();
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        fromMinute = AppointmentSnapshot.epochMinute(start.plusMonths(2));
+        toMinute = AppointmentSnapshot.epochMinute(start.plusMonths(14));
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public AppointmentSnapshot.Counts sequential() {
+        return snapshot.countSequentially(fromMinute, toMinute);
+    }
+
+    @Benchmark
+    public AppointmentSnapshot.Counts forkJoin() {
+        return snapshot.count(fromMinute, toMinute, pool);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AppointmentAnalyticsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
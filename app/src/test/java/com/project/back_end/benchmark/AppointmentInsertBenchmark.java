@@ -0,0 +1,98 @@
+package com.project.back_end.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.services.BatchWriter;
+
+/**
+ * Appointment insert throughput against the configured database, rows per second:
+ * <ul>
+ *     <li>{@code rowAtATime} - one {@code INSERT} round trip per row, which is all IDENTITY ids allowed.</li>
+ *     <li>{@code batched} - {@link BatchWriter} with pooled sequence ids and {@code hibernate.jdbc.batch_size}.</li>
+ * </ul>
+ * Both runs are rolled back. Needs the seeded database (doctor 1, patient 1), so it only runs with
+ * {@code mvn test -Dtest=AppointmentInsertBenchmark -Dbenchmark.db=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark.db", matches = "true")
+public class AppointmentInsertBenchmark {
+
+    private static final int ROWS = 5_000;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private BatchWriter batchWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void insertRowsPerSecond() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        double rowAtATime = transaction.execute(status -> {
+            List<Appointment> rows = appointments(LocalDateTime.now().plusYears(5));
+            long start = System.nanoTime();
+            for (Appointment appointment : rows) {
+                appointmentRepository.saveAndFlush(appointment);
+            }
+            double perSecond = ROWS / ((System.nanoTime() - start) / 1e9);
+            status.setRollbackOnly();
+            return perSecond;
+        });
+
+        double batched = transaction.execute(status -> {
+            List<Appointment> rows = appointments(LocalDateTime.now().plusYears(6));
+            long start = System.nanoTime();
+            batchWriter.persistAll(rows);
+            double perSecond = ROWS / ((System.nanoTime() - start) / 1e9);
+            status.setRollbackOnly();
+            return perSecond;
+        });
+
+        System.out.printf("appointment inserts: row at a time %.0f rows/s, batched (batch size %d) %.0f rows/s, %.1fx%n",
+                rowAtATime, batchWriter.getBatchSize(), batched, batched / rowAtATime);
+        assertEquals(0, appointmentRepository.findAppointmentTimesByDoctorIdBetween(1L,
+                LocalDateTime.now().plusYears(5), LocalDateTime.now().plusYears(7)).size());
+    }
+
+    private List<Appointment> appointments(LocalDateTime from) {
+        Doctor doctor = doctorRepository.getReferenceById(1L);
+        Patient patient = patientRepository.getReferenceById(1L);
+        List<Appointment> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctor);
+            appointment.setPatient(patient);
+            appointment.setAppointmentTime(from.plusMinutes(15L * i));
+            appointment.setStatus(0);
+            rows.add(appointment);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,130 @@
+package com.project.back_end.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.project.back_end.DTO.BookingTicket;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.BookingPipeline;
+
+/**
+ * Booking throughput against the configured database, bookings per second from {@value #CLIENTS} concurrent clients:
+ * <ul>
+ *     <li>{@code direct} - {@link AppointmentService#bookAppointment}, one transaction and commit per booking.</li>
+ *     <li>{@code pipeline} - {@link BookingPipeline}, one transaction and commit per batch, measured until every
+ *     ticket is resolved.</li>
+ * </ul>
+ * The appointments it creates are deleted afterwards. Needs the seeded database (doctor 1, patient 1), so it only
+ * runs with {@code mvn test -Dtest=BookingPipelineBenchmark -Dbenchmark.db=true}.
+ */
+@SpringBootTest(properties = "booking.pipeline.enabled=true")
+@EnabledIfSystemProperty(named = "benchmark.db", matches = "true")
+public class BookingPipelineBenchmark {
+
+    private static final int CLIENTS = 32;
+    private static final int BOOKINGS = 4_000;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private BookingPipeline bookingPipeline;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void bookingsPerSecond() throws InterruptedException {
+        Doctor doctor = doctorRepository.findById(1L).orElseThrow();
+        Patient patient = patientRepository.findById(1L).orElseThrow();
+        List<Long> created = new ArrayList<>();
+        try {
+            List<Appointment> direct = appointments(doctor, patient, LocalDateTime.now().plusYears(5));
+            AtomicInteger booked = new AtomicInteger();
+            double directRate = run(i -> {
+                if (appointmentService.bookAppointment(direct.get(i)) == 1) {
+                    booked.incrementAndGet();
+                }
+            });
+            assertEquals(BOOKINGS, booked.get());
+            direct.forEach(appointment -> created.add(appointment.getId()));
+
+            List<Appointment> queued = appointments(doctor, patient, LocalDateTime.now().plusYears(6));
+            ConcurrentLinkedQueue<BookingTicket> tickets = new ConcurrentLinkedQueue<>();
+            double pipelineRate = run(i -> {
+                BookingTicket ticket = bookingPipeline.submit(queued.get(i));
+                assertNotNull(ticket, "booking queue full");
+                tickets.add(ticket);
+                while (!ticket.isDone()) {
+                    LockSupport.parkNanos(100_000);
+                }
+            });
+            for (BookingTicket ticket : tickets) {
+                assertEquals(BookingTicket.BOOKED, ticket.getStatus());
+                created.add(ticket.getAppointmentId());
+            }
+
+            System.out.printf("bookings from %d clients: direct %.0f/s, pipeline %.0f/s (%.1fx), pipeline stats %s%n",
+                    CLIENTS, directRate, pipelineRate, pipelineRate / directRate, bookingPipeline.getStats());
+        } finally {
+            appointmentRepository.deleteAllByIdInBatch(created);
+        }
+    }
+
+    private double run(IntConsumer booking) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        long start = System.nanoTime();
+        for (int c = 0; c < CLIENTS; c++) {
+            clients.execute(() -> {
+                for (int i = next.getAndIncrement(); i < BOOKINGS; i = next.getAndIncrement()) {
+                    booking.accept(i);
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(10, TimeUnit.MINUTES);
+        return BOOKINGS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private List<Appointment> appointments(Doctor doctor, Patient patient, LocalDateTime from) {
+        List<Appointment> appointments = new ArrayList<>(BOOKINGS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctor);
+            appointment.setPatient(patient);
+            appointment.setAppointmentTime(from.plusMinutes(15L * i));
+            appointment.setStatus(0);
+            appointments.add(appointment);
+        }
+        return appointments;
+    }
+}
@@ -0,0 +1,182 @@
+package com.project.back_end.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.BatchWriter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * A doctor's daily schedule with 40 appointments, read the way {@code GET /appointments/{date}/...} did before and after
+ * the switch to projections:
+ * <ul>
+ *     <li>{@code entities} - load {@link Appointment} entities (each pulling in its Doctor with the EAGER available times
+ *     and its Patient), then map them to {@link AppointmentDTO} in a stream.</li>
+ *     <li>{@code projection} - the constructor expression behind it,
+ *     {@link AppointmentRepository#findScheduleByDoctorIdAndAppointmentTimeBetween}.</li>
+ *     <li>{@code cached} - {@link AppointmentService#getScheduleByDoctorIdAndDate}, served from the {@code ScheduleCache}
+ *     after the first call.</li>
+ * </ul>
+ * Reports JDBC statements, entities and collections loaded (Hibernate statistics) and bytes allocated per call.
+ * Each call starts with an empty persistence context, like a request does. The appointments are rolled back.
+ * Needs the seeded database (doctor 1 and several patients), so it only runs with
+ * {@code mvn test -Dtest=DoctorScheduleBenchmark -Dbenchmark.db=true}.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfSystemProperty(named = "benchmark.db", matches = "true")
+public class DoctorScheduleBenchmark {
+
+    private static final int APPOINTMENTS = 40;
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private BatchWriter batchWriter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void dailySchedule() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        LocalDate day = LocalDate.now().plusYears(5);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            insertDay(day);
+
+            Result entities = measure(statistics, () -> appointmentService.getAppointmentsByDoctorIdAndDate(1L, day, null)
+                    .stream()
+                    .map(app -> new AppointmentDTO(
+                            app.getId(),
+                            app.getDoctor().getId(),
+                            app.getPatient().getId(),
+                            app.getPatient().getName(),
+                            app.getPatient().getEmail(),
+                            app.getPatient().getPhone(),
+                            app.getPatient().getAddress(),
+                            app.getAppointmentTime(),
+                            app.getStatus()))
+                    .toList());
+            Result projection = measure(statistics, () -> appointmentRepository.findScheduleByDoctorIdAndAppointmentTimeBetween(
+                    1L, null, day.atStartOfDay(), day.plusDays(1).atStartOfDay()));
+            Result cached = measure(statistics, () -> appointmentService.getScheduleByDoctorIdAndDate(1L, day, null));
+
+            entities.print("entities");
+            projection.print("projection");
+            cached.print("cached");
+            assertEquals(APPOINTMENTS, entities.rows);
+            assertEquals(APPOINTMENTS, projection.rows);
+            assertEquals(APPOINTMENTS, cached.rows);
+            assertEquals(0, projection.entities);
+            assertTrue(projection.statements < entities.statements);
+            assertEquals(0, cached.statements);
+            status.setRollbackOnly();
+        });
+    }
+
+    private void insertDay(LocalDate day) {
+        Doctor doctor = doctorRepository.getReferenceById(1L);
+        List<Patient> patients = patientRepository.findAll();
+        List<Appointment> rows = new ArrayList<>(APPOINTMENTS);
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctor);
+            appointment.setPatient(patients.get(i % patients.size()));
+            appointment.setAppointmentTime(day.atTime(8, 0).plusMinutes(15L * i));
+            appointment.setStatus(0);
+            rows.add(appointment);
+        }
+        batchWriter.persistAll(rows);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Result measure(Statistics statistics, Supplier<List<AppointmentDTO>> schedule) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        // warm up (JIT, query plan cache, archive boundary), then count one call and time the rest
+        for (int i = 0; i < 20; i++) {
+            schedule.get();
+            entityManager.clear();
+        }
+        statistics.clear();
+        int rows = schedule.get().size();
+        entityManager.clear();
+        Result result = new Result(rows, statistics.getPrepareStatementCount(), statistics.getEntityLoadCount(),
+                statistics.getCollectionLoadCount());
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            schedule.get();
+            entityManager.clear();
+        }
+        result.micros = (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+        result.bytes = (threads.getThreadAllocatedBytes(thread) - allocatedBefore) / ITERATIONS;
+        return result;
+    }
+
+    private static final class Result {
+        final int rows;
+        final long statements;
+        final long entities;
+        final long collections;
+        double micros;
+        long bytes;
+
+        Result(int rows, long statements, long entities, long collections) {
+            this.rows = rows;
+            this.statements = statements;
+            this.entities = entities;
+            this.collections = collections;
+        }
+
+        void print(String name) {
+            System.out.printf("%-10s %d rows: %d statements, %d entities, %d collections, %.0f us, %d KB allocated per call%n",
+                    name, rows, statements, entities, collections, micros, bytes / 1024);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.project.back_end.benchmark;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSlots;
+
+/**
+ * AM/PM filter over all doctors: parsing every slot string with {@link LocalTime#parse} (the previous
+ * {@code DoctorService.hasTimeSlot}) versus testing the precomputed {@link DoctorSlots} mask.
+ * Run with {@code main} from the test classpath (e.g. from the IDE after {@code mvn test-compile}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoctorTimeFilterBenchmark {
+
+    @Param({"1000", "10000"})
+    private int doctorCount;
+
+    private List<Doctor> doctors;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        doctors = new ArrayList<>(doctorCount);
+        for (int i = 0; i < doctorCount; i++) {
+            List<String> times = new ArrayList<>();
+            int slots = 3 + random.nextInt(6);
+            for (int s = 0; s < slots; s++) {
+                // mostly mornings, so the PM filter has to look at several slots before a hit
+                int hour = random.nextInt(10) < 8 ? 8 + random.nextInt(4) : 13 + random.nextInt(5);
+                times.add(String.format("%02d:%02d", hour, random.nextBoolean() ? 0 : 30));
+            }
+            Doctor doctor = new Doctor();
+            doctor.setId(i);
+            doctor.setAvailableTimes(times);
+            doctor.getSlots();
+            doctors.add(doctor);
+        }
+    }
+
+    @Benchmark
+    public int parseStrings() {
+        int matches = 0;
+        for (Doctor doctor : doctors) {
+            for (String slot : doctor.getAvailableTimes()) {
+                if (LocalTime.parse(slot).isAfter(LocalTime.NOON)) {
+                    matches++;
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int slotMask() {
+        int matches = 0;
+        for (Doctor doctor : doctors) {
+            if (doctor.getSlots().matches(DoctorSlots.AFTERNOON)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DoctorTimeFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
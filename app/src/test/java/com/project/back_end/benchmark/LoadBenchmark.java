@@ -0,0 +1,258 @@
+package com.project.back_end.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load against a running instance, used to compare request handling on platform threads (the
+ * default) with virtual threads ({@code --spring.profiles.active=virtual}, Java 21+).
+ * <p>
+ * Each client loops for the configured duration, issuing a doctor-schedule read
+ * ({@code GET /appointments/{date}/{patientName}/{token}}) or, for {@code bookPercent} of the calls, a booking
+ * ({@code POST /appointments/{token}}) at a random quarter hour far in the future. Throughput and p50/p95/p99
+ * latencies are printed per endpoint; a 409 on a booking counts as a served request, not an error.
+ * <p>
+ * The driver only needs the JDK, so after {@code mvn test-compile}:
+ * <pre>
+ * java -cp target/test-classes com.project.back_end.benchmark.LoadBenchmark \
+ *     baseUrl=http://localhost:8080/api/v1 doctorEmail=... doctorPassword=... \
+ *     patientEmail=... patientPassword=... clients=200 seconds=60 warmupSeconds=15 bookPercent=10
+ * </pre>
+ * {@code scripts/load-benchmark.sh} starts the application once per threading model and runs the same load.
+ */
+public class LoadBenchmark {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private static final String SCHEDULE = "schedule";
+    private static final String BOOKING = "booking";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String baseUrl = options.getOrDefault("baseUrl", "http://localhost:8080/api/v1");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "200"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "60"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmupSeconds", "15"));
+        int bookPercent = Integer.parseInt(options.getOrDefault("bookPercent", "10"));
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        String doctorToken = login(http, baseUrl + "/doctor/login",
+                require(options, "doctorEmail"), require(options, "doctorPassword"));
+        String patientToken = login(http, baseUrl + "/patient/login",
+                require(options, "patientEmail"), require(options, "patientPassword"));
+        long[] doctorIds = doctorIds(http, baseUrl);
+        if (doctorIds.length == 0) {
+            throw new IllegalStateException("No doctors returned by " + baseUrl + "/doctor");
+        }
+
+        Workload workload = new Workload(http, baseUrl, doctorToken, patientToken, doctorIds, bookPercent);
+        System.out.printf("%d clients, %d%% bookings, %d doctors, %ds warm-up + %ds measured%n",
+                clients, bookPercent, doctorIds.length, warmupSeconds, seconds);
+
+        run(workload, clients, warmupSeconds);
+        Map<String, Recorder> results = run(workload, clients, seconds);
+
+        for (Map.Entry<String, Recorder> entry : results.entrySet()) {
+            entry.getValue().print(entry.getKey(), seconds);
+        }
+    }
+
+    private static Map<String, Recorder> run(Workload workload, int clients, int seconds) throws InterruptedException {
+        List<Map<String, Recorder>> perClient = new ArrayList<>(clients);
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            Map<String, Recorder> recorders = Map.of(SCHEDULE, new Recorder(), BOOKING, new Recorder());
+            perClient.add(recorders);
+            SplittableRandom random = new SplittableRandom(31L * i + 7);
+            Thread client = new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        workload.next(random, recorders);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + i);
+            client.setDaemon(true);
+            client.start();
+        }
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        done.await();
+
+        Map<String, Recorder> merged = new HashMap<>();
+        merged.put(SCHEDULE, new Recorder());
+        merged.put(BOOKING, new Recorder());
+        for (Map<String, Recorder> recorders : perClient) {
+            recorders.forEach((name, recorder) -> merged.get(name).addAll(recorder));
+        }
+        return merged;
+    }
+
+    private static final class Workload {
+        private final HttpClient http;
+        private final String baseUrl;
+        private final String doctorToken;
+        private final String patientToken;
+        private final long[] doctorIds;
+        private final int bookPercent;
+        private final LocalDate scheduleDate = LocalDate.now();
+        // far enough ahead that bookings from earlier runs and real data rarely collide
+        private final LocalDateTime bookingBase = LocalDate.now().plusYears(5).atStartOfDay();
+
+        Workload(HttpClient http, String baseUrl, String doctorToken, String patientToken,
+                 long[] doctorIds, int bookPercent) {
+            this.http = http;
+            this.baseUrl = baseUrl;
+            this.doctorToken = doctorToken;
+            this.patientToken = patientToken;
+            this.doctorIds = doctorIds;
+            this.bookPercent = bookPercent;
+        }
+
+        void next(SplittableRandom random, Map<String, Recorder> recorders) {
+            HttpRequest request;
+            String name;
+            if (random.nextInt(100) < bookPercent) {
+                name = BOOKING;
+                LocalDateTime time = bookingBase
+                        .plusDays(random.nextInt(3650))
+                        .plusMinutes(15L * random.nextInt(96));
+                String body = "{\"doctorId\":" + doctorIds[random.nextInt(doctorIds.length)]
+                        + ",\"appointmentTime\":\"" + time + "\",\"status\":0}";
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/appointments/" + patientToken))
+                        .timeout(Duration.ofSeconds(30))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            } else {
+                name = SCHEDULE;
+                request = HttpRequest.newBuilder(
+                                URI.create(baseUrl + "/appointments/" + scheduleDate + "/null/" + doctorToken))
+                        .timeout(Duration.ofSeconds(30))
+                        .GET()
+                        .build();
+            }
+
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                ok = status < 400 || (status == 409 && name.equals(BOOKING));
+            } catch (Exception e) {
+                ok = false;
+            }
+            recorders.get(name).record(System.nanoTime() - start, ok);
+        }
+    }
+
+    /**
+     * Latencies of one endpoint, in nanoseconds. Each client owns its recorder; they are merged after the run.
+     */
+    private static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        void record(long nanos, boolean ok) {
+            if (!ok) {
+                errors++;
+                return;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        void addAll(Recorder other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, count + other.count);
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+        }
+
+        void print(String name, int seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf("%-9s %9.1f req/s  p50 %8.2f ms  p95 %8.2f ms  p99 %8.2f ms  errors %d%n",
+                    name, (double) count / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), errors);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+
+    private static String login(HttpClient http, String url, String email, String password) throws Exception {
+        String body = "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}";
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        // the patient login nests the token one level deeper, so match the first string-valued "token"
+        Matcher matcher = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Login failed at " + url + ": " + response.statusCode());
+        }
+        return matcher.group(1);
+    }
+
+    private static long[] doctorIds(HttpClient http, String baseUrl) throws Exception {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/doctor")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = ID.matcher(response.body());
+        List<Long> ids = new ArrayList<>();
+        while (matcher.find()) {
+            ids.add(Long.parseLong(matcher.group(1)));
+        }
+        return ids.stream().distinct().mapToLong(Long::longValue).toArray();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    private static String require(Map<String, String> options, String key) {
+        String value = options.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing argument " + key + "=...");
+        }
+        return value;
+    }
+}
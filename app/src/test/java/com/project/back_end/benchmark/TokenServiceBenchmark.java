@@ -0,0 +1,80 @@
+package com.project.back_end.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.project.back_end.services.TokenCache;
+import com.project.back_end.services.TokenService;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Per-request cost of resolving the subject of a token.
+ * <ul>
+ *     <li>{@code rebuildKeyAndParser} - the previous behaviour: derive the key and build a parser on every call.</li>
+ *     <li>{@code prebuiltParser} - key and parser built once, signature still verified on every call.</li>
+ *     <li>{@code tokenService} - {@link TokenService#extractEmail(String)} with the verified-token cache.</li>
+ * </ul>
+ * Run with {@code main} from the test classpath (e.g. from the IDE after {@code mvn test-compile}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenServiceBenchmark {
+
+    private static final String SECRET = "$!@#$^%$$$%####$DDCPN0234FCFDPD8670M";
+
+    private TokenService tokenService;
+    private io.jsonwebtoken.JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenService = new TokenService(null, null, null, new TokenCache(10_000, 900), SECRET, 0);
+        parser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build();
+        token = tokenService.generateToken("dr.adams@example.com");
+    }
+
+    @Benchmark
+    public String rebuildKeyAndParser() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String prebuiltParser() {
+        return parser.parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String tokenService() {
+        return tokenService.extractEmail(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
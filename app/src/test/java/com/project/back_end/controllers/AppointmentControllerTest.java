@@ -0,0 +1,45 @@
+package com.project.back_end.controllers;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AuthPrincipal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@Transactional
+public class AppointmentControllerTest {
+
+    @Autowired
+    private AppointmentController appointmentController;
+
+    @Test
+    void testBookAppointmentsReturnsConflictForATakenSlot() {
+        AuthPrincipal admin = new AuthPrincipal("admin", 1L, "admin", null);
+        // far enough ahead that the slot is free
+        LocalDateTime time = LocalDateTime.of(2099, 5, 4, 9, 0);
+
+        ResponseEntity<Map<String, Object>> first = appointmentController.bookAppointments(List.of(appointment(time)), admin);
+        assertEquals(200, first.getStatusCode().value());
+        assertEquals(1, first.getBody().get("inserted"));
+
+        ResponseEntity<Map<String, Object>> second = appointmentController.bookAppointments(List.of(appointment(time)), admin);
+        assertEquals(409, second.getStatusCode().value());
+        assertNotNull(second.getBody().get("error"));
+    }
+
+    private static AppointmentDTO appointment(LocalDateTime time) {
+        return new AppointmentDTO(null, 1L, 1L, null, null, null, null, time, 0);
+    }
+}
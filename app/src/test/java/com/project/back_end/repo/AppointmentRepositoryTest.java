@@ -1,9 +1,14 @@
 
 package com.project.back_end.repo;
 
+import com.project.back_end.DTO.AppointmentDTO;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Doctor;
 import com.project.back_end.models.Patient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,6 +20,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,6 +38,12 @@ public class AppointmentRepositoryTest {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
 
     private Doctor testDoctor;
     private Patient testPatient;
@@ -117,6 +129,77 @@ public class AppointmentRepositoryTest {
         assertFalse(results.isEmpty());
     }
 
+    @Test
+    void testPatientHistoryStatementCountDoesNotGrowWithHistory() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        List<Doctor> doctors = doctorRepository.findAll();
+        LocalDateTime from = LocalDateTime.now().plusYears(3).withNano(0);
+
+        addAppointments(doctors, from, 1);
+        appointmentRepository.findHistoryByPatientId(testPatient.getId());
+        statistics.clear();
+        int fewRows = appointmentRepository.findHistoryByPatientId(testPatient.getId()).size();
+        long fewStatements = statistics.getPrepareStatementCount();
+
+        addAppointments(doctors, from.plusDays(1), 30);
+        statistics.clear();
+        List<AppointmentDTO> manyRows = appointmentRepository.findHistoryByPatientId(testPatient.getId());
+        long manyStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(fewRows + 30, manyRows.size());
+        assertEquals(1, fewStatements);
+        assertEquals(fewStatements, manyStatements);
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        statistics.clear();
+        appointmentRepository.findHistoryByDoctorNameAndPatientId(doctors.get(0).getName(), testPatient.getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testHistoryPagesWalkFutureAppointmentsInOrder() {
+        List<Doctor> doctors = doctorRepository.findAll();
+        LocalDateTime now = LocalDateTime.now();
+        int before = appointmentRepository.findHistoryPage(testPatient.getId(), null, true, now, null, null, 10_000).size();
+        addAppointments(doctors, now.plusYears(3).withNano(0), 30);
+
+        List<AppointmentDTO> walked = new ArrayList<>();
+        List<AppointmentDTO> page = appointmentRepository.findHistoryPage(testPatient.getId(), null, true, now, null, null, 7);
+        while (!page.isEmpty()) {
+            walked.addAll(page);
+            AppointmentDTO last = page.get(page.size() - 1);
+            page = appointmentRepository.findHistoryPage(testPatient.getId(), null, true, now,
+                    last.getAppointmentTime(), last.getId(), 7);
+        }
+
+        assertEquals(before + 30, walked.size());
+        assertEquals(walked.size(), walked.stream().map(AppointmentDTO::getId).distinct().count());
+        for (int i = 1; i < walked.size(); i++) {
+            assertFalse(walked.get(i).getAppointmentTime().isBefore(walked.get(i - 1).getAppointmentTime()));
+        }
+
+        // once it is no longer scheduled, a future appointment counts as past; the latest one heads the past pages
+        AppointmentDTO latest = walked.get(walked.size() - 1);
+        appointmentRepository.updateStatus(Appointment.COMPLETED, latest.getId());
+        List<AppointmentDTO> past = appointmentRepository.findHistoryPage(testPatient.getId(), null, false, now, null, null, 1);
+        assertEquals(latest.getId(), past.get(0).getId());
+    }
+
+    private void addAppointments(List<Doctor> doctors, LocalDateTime from, int count) {
+        for (int i = 0; i < count; i++) {
+            Appointment appointment = new Appointment();
+            // spread over the doctors so each row would have loaded a different Doctor
+            appointment.setDoctor(doctors.get(i % doctors.size()));
+            appointment.setPatient(testPatient);
+            appointment.setAppointmentTime(from.plusHours(i));
+            appointment.setStatus(0);
+            appointmentRepository.save(appointment);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
     @Test
     void testUpdateStatus() {
         Appointment saved = appointmentRepository.save(testAppointment);
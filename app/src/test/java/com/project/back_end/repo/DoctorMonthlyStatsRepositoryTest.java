@@ -0,0 +1,93 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.DTO.DoctorRanking;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@Transactional
+public class DoctorMonthlyStatsRepositoryTest {
+
+    // far enough ahead that no other data falls into the month
+    private static final int YEAR = 2099;
+    private static final int MONTH = 3;
+
+    @Autowired
+    private DoctorMonthlyStatsRepository statsRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testRebuildCountsAppointmentsExceptNoShowsAndKeepsCancellations() {
+        Doctor doctor = doctorRepository.findById(1L).orElseThrow();
+        Patient patient = patientRepository.findById(1L).orElseThrow();
+        LocalDateTime start = LocalDateTime.of(YEAR, MONTH, 1, 0, 0);
+        LocalDateTime end = start.plusMonths(1);
+        addAppointment(doctor, patient, start.plusDays(1).withHour(9), Appointment.SCHEDULED);
+        addAppointment(doctor, patient, start.plusDays(2).withHour(9), Appointment.COMPLETED);
+        addAppointment(doctor, patient, start.plusDays(3).withHour(9), Appointment.NO_SHOW);
+        // the next month does not count
+        addAppointment(doctor, patient, end.withHour(9), Appointment.SCHEDULED);
+        statsRepository.add(doctor.getId(), YEAR, MONTH, 5, 1);
+        entityManager.flush();
+
+        statsRepository.rebuildPatientsSeen(YEAR, MONTH, start, end, Appointment.NO_SHOW);
+        DoctorRanking ranking = findRanking(doctor.getId());
+        assertEquals(2, ranking.getPatientsSeen());
+        assertEquals(1, ranking.getCancellations());
+
+        statsRepository.add(doctor.getId(), YEAR, MONTH, -1, 1);
+        ranking = findRanking(doctor.getId());
+        assertEquals(1, ranking.getPatientsSeen());
+        assertEquals(2, ranking.getCancellations());
+
+        appointmentRepository.deleteAll(appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(doctor.getId(), start, end));
+        entityManager.flush();
+        statsRepository.clearPatientsSeenWithoutAppointments(YEAR, MONTH, start, end, Appointment.NO_SHOW);
+        assertEquals(0, findRanking(doctor.getId()).getPatientsSeen());
+
+        List<DoctorRanking> year = statsRepository.findYearlyLeaderboard(YEAR, Limit.of(10));
+        assertEquals(2, year.stream().filter(r -> r.getDoctorId() == doctor.getId()).findFirst().orElseThrow().getCancellations());
+    }
+
+    private DoctorRanking findRanking(long doctorId) {
+        entityManager.clear();
+        return statsRepository.findMonthlyLeaderboard(YEAR, MONTH, Limit.of(100)).stream()
+                .filter(ranking -> ranking.getDoctorId() == doctorId)
+                .findFirst().orElseThrow();
+    }
+
+    private void addAppointment(Doctor doctor, Patient patient, LocalDateTime time, int status) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentTime(time);
+        appointment.setStatus(status);
+        appointmentRepository.save(appointment);
+    }
+}
@@ -0,0 +1,164 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentRepository;
+
+/**
+ * Many threads booking random slots of a small set of doctors at once, against an appointment table without a unique
+ * constraint, so any double booking let through by {@link AppointmentService#bookAppointment} shows up as two rows.
+ */
+public class AppointmentBookingStressTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 2_000;
+    private static final int DOCTORS = 20;
+    private static final int DAYS = 5;
+    private static final int SLOTS_PER_DAY = 8;
+    private static final int FAILING_INSERT = -99;
+
+    private final LocalDate firstDay = LocalDate.now().plusDays(1);
+
+    // rows per (doctor, time), and the times stored per doctor for the availability loads
+    private final Map<String, AtomicInteger> rows = new ConcurrentHashMap<>();
+    private final Map<Long, Queue<LocalDateTime>> timesByDoctor = new ConcurrentHashMap<>();
+
+    private AppointmentService appointmentService;
+    private List<Doctor> doctors;
+
+    @BeforeEach
+    void setUp() {
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class, withSettings().stubOnly());
+        when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenAnswer(invocation -> {
+            Appointment appointment = invocation.getArgument(0);
+            if (appointment.getStatus() == FAILING_INSERT) {
+                throw new IllegalStateException("insert failed");
+            }
+            // widen the window between the availability check and the insert, like a real round trip
+            LockSupport.parkNanos(20_000);
+            long doctorId = appointment.getDoctor().getId();
+            rows.computeIfAbsent(doctorId + "@" + appointment.getAppointmentTime(), k -> new AtomicInteger()).incrementAndGet();
+            timesByDoctor.computeIfAbsent(doctorId, k -> new ConcurrentLinkedQueue<>()).add(appointment.getAppointmentTime());
+            return appointment;
+        });
+        when(appointmentRepository.findAppointmentTimesByDoctorIdBetween(anyLong(), any(), any())).thenAnswer(invocation -> {
+            long doctorId = invocation.getArgument(0);
+            LocalDateTime start = invocation.getArgument(1);
+            LocalDateTime end = invocation.getArgument(2);
+            List<LocalDateTime> times = new ArrayList<>();
+            for (LocalDateTime time : timesByDoctor.getOrDefault(doctorId, new ConcurrentLinkedQueue<>())) {
+                if (!time.isBefore(start) && time.isBefore(end)) {
+                    times.add(time);
+                }
+            }
+            return times;
+        });
+
+        AvailabilityEngine engine = new AvailabilityEngine(appointmentRepository, 200_000);
+        appointmentService = new AppointmentService(appointmentRepository, null, null, null, engine, null, new SlotHoldManager(engine, 120, 3),
+                event -> { }, null, mock(DoctorStatsRollup.class, withSettings().stubOnly()));
+
+        doctors = new ArrayList<>();
+        for (int i = 1; i <= DOCTORS; i++) {
+            Doctor doctor = new Doctor();
+            doctor.setId(i);
+            doctors.add(doctor);
+        }
+    }
+
+    @Test
+    void concurrentBookingsNeverDoubleBook() throws InterruptedException {
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger taken = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    Appointment appointment = new Appointment();
+                    appointment.setDoctor(doctors.get(random.nextInt(DOCTORS)));
+                    appointment.setAppointmentTime(firstDay.plusDays(random.nextInt(DAYS))
+                            .atTime(9 + random.nextInt(SLOTS_PER_DAY), 0));
+                    int result = appointmentService.bookAppointment(appointment);
+                    if (result == 1) {
+                        booked.incrementAndGet();
+                    } else if (result == AppointmentService.SLOT_TAKEN) {
+                        taken.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS), "stress run did not finish");
+        double seconds = (System.nanoTime() - began) / 1e9;
+
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        System.out.printf("%d booking attempts on %d threads in %.2f s: %.0f attempts/s, %d booked, %d rejected as taken%n",
+                attempts, THREADS, seconds, attempts / seconds, booked.get(), taken.get());
+
+        assertEquals(0, failed.get());
+        assertEquals(attempts, booked.get() + taken.get());
+        for (Map.Entry<String, AtomicInteger> entry : rows.entrySet()) {
+            assertEquals(1, entry.getValue().get(), "double booking of " + entry.getKey());
+        }
+        assertEquals(rows.size(), booked.get());
+        // with far more attempts than slots, every slot ends up booked exactly once
+        assertEquals(DOCTORS * DAYS * SLOTS_PER_DAY, booked.get());
+    }
+
+    @Test
+    void slotIsFreeAgainAfterAFailedInsert() {
+        Appointment broken = new Appointment();
+        broken.setDoctor(doctors.get(0));
+        broken.setAppointmentTime(firstDay.atTime(10, 0));
+        broken.setStatus(FAILING_INSERT);
+        assertEquals(0, appointmentService.bookAppointment(broken));
+
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctors.get(0));
+        appointment.setAppointmentTime(firstDay.atTime(10, 0));
+
+        assertEquals(1, appointmentService.bookAppointment(appointment));
+        assertEquals(AppointmentService.SLOT_TAKEN, appointmentService.bookAppointment(appointment));
+    }
+}
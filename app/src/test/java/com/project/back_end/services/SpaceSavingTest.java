@@ -0,0 +1,153 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Estimates of {@link SpaceSaving} and {@link SlidingTopK} against exact counts of the same skewed streams: every
+ * count stays within its bounds and the true heavy hitters are found.
+ */
+public class SpaceSavingTest {
+
+    private static final int KEYS = 5000;
+    private static final int OFFERS = 200_000;
+    private static final int CAPACITY = 200;
+
+    @Test
+    void countsStayWithinBoundsOfExactCounts() {
+        Random random = new Random(7);
+        double[] weights = zipfWeights(KEYS, 1.1);
+        SpaceSaving<Integer> summary = new SpaceSaving<>(CAPACITY);
+        Map<Integer, Long> exact = new HashMap<>();
+        for (int i = 0; i < OFFERS; i++) {
+            int key = sample(weights, random);
+            summary.offer(key);
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        assertEquals(OFFERS, summary.offered());
+        assertEquals(CAPACITY, summary.size());
+        long maxError = OFFERS / CAPACITY;
+        summary.forEach(entry -> {
+            long truth = exact.getOrDefault(entry.getKey(), 0L);
+            assertTrue(entry.getCount() >= truth, "count of " + entry.getKey() + " underestimated");
+            assertTrue(entry.getGuaranteed() <= truth, "guaranteed count of " + entry.getKey() + " overestimated");
+            assertTrue(entry.getCount() - truth <= maxError, "count of " + entry.getKey() + " off by more than n / capacity");
+        });
+        // every key seen more often than n / capacity has a counter
+        for (Map.Entry<Integer, Long> entry : exact.entrySet()) {
+            if (entry.getValue() > maxError) {
+                assertTrue(summary.top(CAPACITY).stream().anyMatch(e -> e.getKey().equals(entry.getKey())),
+                        "heavy hitter " + entry.getKey() + " lost");
+            }
+        }
+        assertEquals(exactTop(exact, 10), keys(summary.top(10)));
+    }
+
+    @Test
+    void newKeysDoNotEvictAHeavyKeySeenFirst() {
+        SpaceSaving<String> summary = new SpaceSaving<>(3);
+        summary.offer("A", 100);
+        summary.offer("B");
+        summary.offer("C");
+        assertEquals(1, summary.min());
+        summary.offer("D");
+
+        SpaceSaving.Entry<String> top = summary.top(1).get(0);
+        assertEquals("A", top.getKey());
+        assertEquals(100, top.getCount());
+        assertEquals(0, top.getError());
+        assertEquals(2, summary.top(3).stream().filter(entry -> entry.getKey().equals("D")).findFirst().orElseThrow().getCount());
+        assertEquals(1, summary.min());
+    }
+
+    @Test
+    void rejectsWeightsThatWouldShrinkACount() {
+        SpaceSaving<String> summary = new SpaceSaving<>(3);
+        summary.offer("A", 5);
+        assertThrows(IllegalArgumentException.class, () -> summary.offer("A", 0));
+        assertThrows(IllegalArgumentException.class, () -> summary.offer("A", -3));
+        assertEquals(5, summary.top(1).get(0).getCount());
+        assertEquals(5, summary.offered());
+    }
+
+    @Test
+    void slidingWindowForgetsExpiredPanesAndKeepsBounds() {
+        long pane = 60_000;
+        SlidingTopK<Integer> window = new SlidingTopK<>(4, pane, 50, 0);
+        Random random = new Random(11);
+        double[] weights = zipfWeights(1000, 1.2);
+        // key 0 is the busiest only in the first pane, which falls out of the window
+        for (int i = 0; i < 5000; i++) {
+            window.offer(0, 0);
+        }
+        Map<Integer, Long> exact = new HashMap<>();
+        long offered = 0;
+        for (int p = 1; p <= 4; p++) {
+            for (int i = 0; i < 10_000; i++) {
+                int key = 1 + sample(weights, random);
+                window.offer(key, p * pane + i);
+                exact.merge(key, 1L, Long::sum);
+                offered++;
+            }
+        }
+
+        long now = 4 * pane + pane - 1;
+        assertEquals(offered, window.offered(now));
+        List<SpaceSaving.Entry<Integer>> top = window.top(50, now);
+        assertTrue(top.stream().noneMatch(entry -> entry.getKey() == 0), "expired pane still counted");
+        long maxError = offered / 50;
+        for (SpaceSaving.Entry<Integer> entry : top) {
+            long truth = exact.getOrDefault(entry.getKey(), 0L);
+            assertTrue(entry.getCount() >= truth, "count of " + entry.getKey() + " underestimated");
+            assertTrue(entry.getGuaranteed() <= truth, "guaranteed count of " + entry.getKey() + " overestimated");
+            assertTrue(entry.getCount() - truth <= maxError, "count of " + entry.getKey() + " off by more than n / capacity");
+        }
+        assertEquals(exactTop(exact, 5), keys(window.top(5, now)));
+
+        // a pane later the oldest pane of the stream is gone too
+        assertTrue(window.offered(now + pane) < offered);
+        assertEquals(0, window.offered(now + 4 * pane));
+        assertTrue(window.top(5, now + 4 * pane).isEmpty());
+    }
+
+    private static double[] zipfWeights(int keys, double exponent) {
+        double[] cumulative = new double[keys];
+        double sum = 0;
+        for (int k = 0; k < keys; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < keys; k++) {
+            cumulative[k] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    private static List<Integer> exactTop(Map<Integer, Long> exact, int k) {
+        return exact.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed())
+                .limit(k)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Integer> keys(List<SpaceSaving.Entry<Integer>> entries) {
+        return entries.stream().map(SpaceSaving.Entry::getKey).collect(Collectors.toList());
+    }
+}
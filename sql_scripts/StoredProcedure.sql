@@ -17,7 +17,9 @@ BEGIN
     JOIN
         patient p ON a.patient_id = p.id
     WHERE
-        DATE(a.appointment_time) = report_date
+        -- a half-open range can use the appointment_time index; DATE(appointment_time) would scan every row
+        a.appointment_time >= report_date
+        AND a.appointment_time < report_date + INTERVAL 1 DAY
     ORDER BY
         d.name, a.appointment_time;
 END$$
@@ -33,16 +35,15 @@ CREATE PROCEDURE GetDoctorWithMostPatientsByMonth(
     IN input_year INT
 )
 BEGIN
+    -- read from the monthly rollup kept by the application (DoctorStatsRollup) instead of aggregating every appointment
     SELECT
         doctor_id,
-        COUNT(patient_id) AS patients_seen
+        patients_seen
     FROM
-        appointment
+        doctor_monthly_stats
     WHERE
-        MONTH(appointment_time) = input_month
-        AND YEAR(appointment_time) = input_year
-    GROUP BY
-        doctor_id
+        year = input_year
+        AND month = input_month
     ORDER BY
         patients_seen DESC
     LIMIT 1;
@@ -60,13 +61,14 @@ CREATE PROCEDURE GetDoctorWithMostPatientsByYear(
     IN input_year INT
 )
 BEGIN
+    -- at most twelve rollup rows per doctor
     SELECT
         doctor_id,
-        COUNT(patient_id) AS patients_seen
+        SUM(patients_seen) AS patients_seen
     FROM
-        appointment
+        doctor_monthly_stats
     WHERE
-        YEAR(appointment_time) = input_year
+        year = input_year
     GROUP BY
         doctor_id
     ORDER BY
@@ -0,0 +1,37 @@
+-- Ids of admin, doctor, patient and appointment come from pooled sequences (allocationSize = 50).
+-- MySQL has no sequences, so Hibernate emulates each one with a one-row table <entity>_seq(next_val),
+-- created by ddl-auto with next_val = 1. A single UPDATE of that row hands out 50 ids, which is what
+-- lets Hibernate batch the INSERTs (IDENTITY needs the generated key of every row, one round trip each).
+--
+-- The application raises every sequence above the ids in use when it starts (IdSequenceSeeder), the
+-- appointment sequence above the ids of appointment_archive as well. Run this script
+--   * to restore AUTO_INCREMENT for hand-written seed scripts (below), and
+--   * after a bulk load done outside the application while it is running,
+-- so the sequences start above the ids already in use.
+
+-- Hand-written INSERTs without an id (data.sql) still rely on AUTO_INCREMENT, which a schema created
+-- by Hibernate no longer declares. Ids assigned by the application are explicit and work either way.
+SET FOREIGN_KEY_CHECKS = 0;
+ALTER TABLE admin MODIFY id BIGINT NOT NULL AUTO_INCREMENT;
+ALTER TABLE doctor MODIFY id BIGINT NOT NULL AUTO_INCREMENT;
+ALTER TABLE patient MODIFY id BIGINT NOT NULL AUTO_INCREMENT;
+ALTER TABLE appointment MODIFY id BIGINT NOT NULL AUTO_INCREMENT;
+SET FOREIGN_KEY_CHECKS = 1;
+
+-- The pooled optimizer hands out (next_val - 49) .. next_val, so max(id) + 50 starts right after the last row.
+CREATE TABLE IF NOT EXISTS admin_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS doctor_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS patient_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS appointment_seq (next_val BIGINT);
+
+DELETE FROM admin_seq;
+INSERT INTO admin_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM admin;
+DELETE FROM doctor_seq;
+INSERT INTO doctor_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM doctor;
+DELETE FROM patient_seq;
+INSERT INTO patient_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM patient;
+DELETE FROM appointment_seq;
+-- archived appointments keep their ids, so they count too
+INSERT INTO appointment_seq (next_val)
+SELECT GREATEST(COALESCE((SELECT MAX(id) FROM appointment), 0),
+                COALESCE((SELECT MAX(id) FROM appointment_archive), 0)) + 50;